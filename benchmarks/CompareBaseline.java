@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//porovna vysledky JMH (-rf csv) s ulozenymi zakladnymi hodnotami (baseline)
+//spustenie: java -cp benchmarks/target/benchmarks.jar benchmarks.CompareBaseline [baseline.csv] [vysledky.csv]
+//vsetky merania su cas na operaciu, takze vyssie skore je pomalsie; pri spomaleni nad 10 % skonci s kodom 1
+public final class CompareBaseline {
+    private static final double REGRESSION = 0.10; //o kolko moze byt meranie pomalsie, kym sa oznaci
+
+    private CompareBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("pouzitie: CompareBaseline <baseline.csv> <vysledky.csv>");
+            System.exit(2);
+        }
+        Map<String, Double> baseline = load(Path.of(args[0]));
+        Map<String, Double> results = load(Path.of(args[1]));
+
+        int slower = 0;
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            Double base = baseline.get(result.getKey());
+            double score = result.getValue();
+            if (base == null) {
+                System.out.printf("%-50s %14.1f%n", result.getKey(), score);
+                continue;
+            }
+            double change = (score - base) / base;
+            boolean regression = change > REGRESSION;
+            if (regression) {
+                slower++;
+            }
+            System.out.printf("%-50s %14.1f %14.1f  %+6.1f %%%s%n", result.getKey(), base, score, change * 100,
+                    regression ? "  POMALSIE" : "");
+        }
+        if (slower > 0) {
+            System.out.printf("%d meran je pomalsich ako baseline%n", slower);
+            System.exit(1);
+        }
+    }
+
+    //kluc je nazov merania a hodnoty parametrov, napr. "CoreBenchmarks.paySingle size=1000"
+    static Map<String, Double> load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Súbor " + file + " je prázdny.");
+        }
+        List<String> header = split(lines.get(0));
+        int name = header.indexOf("Benchmark");
+        int score = header.indexOf("Score");
+        if (name < 0 || score < 0) {
+            throw new IllegalArgumentException("Súbor " + file + " nie je výstup JMH vo formáte csv.");
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> columns = split(line);
+            String benchmark = columns.get(name);
+            StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.',
+                    benchmark.lastIndexOf('.') - 1) + 1));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && !columns.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(columns.get(i));
+                }
+            }
+            scores.put(key.toString(), Double.parseDouble(columns.get(score)));
+        }
+        return scores;
+    }
+
+    //JMH dava kazdy stlpec do uvodzoviek okrem cisel, ciarky v hodnotach nie su
+    private static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        for (String column : line.split(",", -1)) {
+            column = column.trim();
+            if (column.length() >= 2 && column.startsWith("\"") && column.endsWith("\"")) {
+                column = column.substring(1, column.length() - 1);
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,223 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//JMH meranie zakladnych operacii poistovne pri roznych velkostiach portfolia (jednotky z PortfolioGenerator)
+//spustenie: mvn -B package && java -jar benchmarks/target/benchmarks.jar -rf csv -rff vysledky.csv
+//  len niektore velkosti: -p size=1000,100000; predvolene velkosti su tie, pre ktore je baseline.csv
+//  10 000 000 zmlov len rucne: -p size=10000000 -jvmArgs -Xmx16g (porovnat ho nie je s cim)
+//porovnanie s ulozenymi hodnotami: java -cp benchmarks/target/benchmarks.jar benchmarks.CompareBaseline
+//  benchmarks/baseline.csv vysledky.csv
+//baseline.csv je z behu s nastaveniami z anotacii bez zmien (3 forky, iteracie, -Xms2g -Xmx4g) na JDK 17.0.9 (Temurin),
+//  1 jadro a 5 GB RAM, pre CoreBenchmarks aj SnapshotBenchmark:
+//  java -jar benchmarks/target/benchmarks.jar -p size=1000,10000,100000,1000000 -rf csv -rff benchmarks/baseline.csv
+//  velkost 10 000 000 v nej nie je - na -Xmx16g tam nebola pamat
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class CoreBenchmarks {
+    private static final long SEED = 42;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int BATCH = 1_000; //zmluvy na jedno meranie v SingleShotTime
+    private static final int IDS = 1 << 12;
+
+    //spolocne portfolio pre operacie, ktore zmluvy nerusia ani nepridavaju
+    @State(Scope.Benchmark)
+    public static class Portfolio {
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        InsuranceCompany company;
+        SingleVehicleContract[] singles;
+        MasterVehicleContract[] masters;
+        String[] ids;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            company = new InsuranceCompany(START);
+            new PortfolioGenerator(SEED).populate(company, size);
+            List<SingleVehicleContract> singleList = new ArrayList<>();
+            List<MasterVehicleContract> masterList = new ArrayList<>();
+            for (AbstractContract contract : company.getContracts()) {
+                if (contract instanceof SingleVehicleContract single) {
+                    singleList.add(single);
+                } else if (contract instanceof MasterVehicleContract master && !master.getChildContracts().isEmpty()) {
+                    masterList.add(master);
+                }
+            }
+            singles = singleList.toArray(new SingleVehicleContract[0]);
+            masters = masterList.toArray(new MasterVehicleContract[0]);
+            ids = new String[IDS];
+            for (int i = 0; i < IDS; i++) {
+                ids[i] = i % 2 == 0 ? PortfolioGenerator.birthNumber(i) : PortfolioGenerator.registrationNumber(i);
+            }
+        }
+
+        //dalsia zmluva v kruhu, aby sa platby nesustredili na jednu zmluvu
+        int next(int length) {
+            int index = next;
+            next = index + 1 == length ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    //portfolio, do ktoreho sa pridavaju nove zmluvy; ked narastie o viac ako 10 %, postavi sa znova,
+    //aby merania zostali pri velkosti size (pri velkych portfoliach sa teda nestavia vobec)
+    @State(Scope.Benchmark)
+    public static class GrowingPortfolio {
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        InsuranceCompany company;
+        Person[] holders;
+        Vehicle[] vehicles;
+        List<Set<Person>> groups;
+        int added;
+        int round;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            holders = new Person[BATCH];
+            vehicles = new Vehicle[BATCH];
+            groups = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                //ine id a EC ako v generatore (ten ich cisluje od nuly)
+                holders[i] = new Person(PortfolioGenerator.registrationNumber(90_000_000 + i));
+                vehicles[i] = new Vehicle(PortfolioGenerator.licensePlate(400_000_000L + i), 5_000 + i);
+                groups.add(Set.of(new Person(PortfolioGenerator.birthNumber(59_000_000 + 2 * i)),
+                        new Person(PortfolioGenerator.birthNumber(59_000_000 + 2 * i + 1))));
+            }
+            build();
+        }
+
+        @Setup(Level.Iteration)
+        public void nextRound() {
+            if (added + BATCH > size / 10) {
+                build();
+            }
+            round++;
+        }
+
+        private void build() {
+            company = new InsuranceCompany(START);
+            new PortfolioGenerator(SEED).populate(company, size);
+            added = 0;
+        }
+    }
+
+    //cestovne zmluvy po poistnej udalosti zaniknu, preto sa pred kazdym meranim uzavru nove
+    @State(Scope.Benchmark)
+    public static class TravelClaims {
+        TravelContract[] contracts;
+        List<Set<Person>> affected;
+
+        @Setup(Level.Iteration)
+        public void setUp(GrowingPortfolio portfolio) {
+            contracts = new TravelContract[BATCH];
+            affected = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                contracts[i] = portfolio.company.insurePersons("BC" + portfolio.round + "-" + i,
+                        portfolio.holders[i], 20, PremiumPaymentFrequency.ANNUAL, portfolio.groups.get(i));
+                affected.add(Set.of(contracts[i].getInsuredPersons().iterator().next()));
+            }
+            portfolio.added += BATCH;
+        }
+    }
+
+    @Benchmark
+    public void newPerson(Portfolio portfolio, Blackhole blackhole) {
+        blackhole.consume(new Person(portfolio.ids[portfolio.next(IDS)]));
+    }
+
+    //davka BATCH zmlov do portfolia velkosti size, vysledok je cas na jednu zmluvu
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 10)
+    @OperationsPerInvocation(BATCH)
+    public void insureVehicle(GrowingPortfolio portfolio, Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(portfolio.company.insureVehicle("BV" + portfolio.round + "-" + i, null,
+                    portfolio.holders[i], 300, PremiumPaymentFrequency.MONTHLY, portfolio.vehicles[i]));
+        }
+        portfolio.added += BATCH;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 10)
+    @OperationsPerInvocation(BATCH)
+    public void insurePersons(GrowingPortfolio portfolio, Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(portfolio.company.insurePersons("BT" + portfolio.round + "-" + i, portfolio.holders[i],
+                    20, PremiumPaymentFrequency.ANNUAL, portfolio.groups.get(i)));
+        }
+        portfolio.added += BATCH;
+    }
+
+    @Benchmark
+    public void paySingle(Portfolio portfolio) {
+        portfolio.singles[portfolio.next(portfolio.singles.length)].pay(10);
+    }
+
+    @Benchmark
+    public void payMaster(Portfolio portfolio) {
+        portfolio.masters[portfolio.next(portfolio.masters.length)].pay(100);
+    }
+
+    //zauctovanie celeho portfolia; cas sa zakazdym posunie o mesiac, aby bolo co uctovat
+    @Benchmark
+    public void chargePremiumsOnContracts(Portfolio portfolio) {
+        InsuranceCompany company = portfolio.company;
+        company.setCurrentTime(company.getCurrentTime().plusMonths(1));
+        company.chargePremiumsOnContracts();
+    }
+
+    //skoda pod 70 % ceny vozidla - zmluva nezanikne
+    @Benchmark
+    public void processVehicleClaim(Portfolio portfolio) {
+        portfolio.company.processClaim(portfolio.singles[portfolio.next(portfolio.singles.length)], 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 10)
+    @OperationsPerInvocation(BATCH)
+    public void processTravelClaim(GrowingPortfolio portfolio, TravelClaims claims) {
+        for (int i = 0; i < BATCH; i++) {
+            portfolio.company.processClaim(claims.contracts[i], claims.affected.get(i));
+        }
+    }
+}
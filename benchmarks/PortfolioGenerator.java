@@ -0,0 +1,389 @@
+package benchmarks;
+
+import company.ContractImporter;
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+//deterministicky generator portfolia pre merania a zatazove testy
+//portfolio ma size jednotiek: zmluva na vozidlo, cestovna zmluva alebo flotila (master zmluva s 2-20 vozidlami)
+//kazda jednotka sa generuje z vlastneho generatora odvodeneho od seed a jej poradia, takze ta ista jednotka
+//vyzera rovnako bez ohladu na pocet vlakien; jednotky sa generuju paralelne po davkach a do poistovne
+//(alebo suboru) sa zapisuju v poradi, kym sa uz generuje dalsia davka
+//
+//zakaznici su z pevnych skupin: fyzicke osoby (platne 10-miestne rodne cisla) a pravnicke osoby (ICO),
+//takze ta ista osoba je na viacerych zmluvach; EC su rozne pre kazde vozidlo v tvare AA000AA
+public class PortfolioGenerator {
+    private static final int BATCH = 16_384;
+    private static final int MAX_FLEET = 20;
+    private static final int PLATES_PER_UNIT = 24; //EC jednotky su unit * 24 + poradie vozidla
+    private static final long PLATE_COUNT = 26L * 26 * 1000 * 26 * 26;
+    private static final int MAX_TRAVEL_GROUP = 6;
+
+    private final long seed;
+    private final double fleetShare;
+    private final double travelShare;
+
+    //spustenie: java benchmarks.PortfolioGenerator velkost subor [seed]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("použitie: PortfolioGenerator veľkosť súbor [seed]");
+            return;
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        long start = System.nanoTime();
+        new PortfolioGenerator(seed).write(Path.of(args[1]), Integer.parseInt(args[0]));
+        System.out.printf("%s za %d ms%n", args[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //Konštruktor:
+    public PortfolioGenerator(long seed) {
+        this(seed, 0.05, 0.25);
+    }
+
+    //fleetShare a travelShare su podiely jednotiek, zvysok su samostatne zmluvy na vozidla
+    public PortfolioGenerator(long seed, double fleetShare, double travelShare) {
+        if (fleetShare < 0 || travelShare < 0 || fleetShare + travelShare > 1) {
+            throw new IllegalArgumentException("Neplatné podiely druhov zmlúv.");
+        }
+        this.seed = seed;
+        this.fleetShare = fleetShare;
+        this.travelShare = travelShare;
+    }
+
+    //vytvori portfolio priamo v poistovni cez insureVehicle, insurePersons a presuny do master zmluv
+    public void populate(InsuranceCompany company, int size) {
+        if (company == null) {
+            throw new IllegalArgumentException("Poisťovňa company nesmie byť null.");
+        }
+        forEachBatch(size, this::generate, Unit[]::new, units -> {
+            for (Unit unit : units) {
+                unit.insure(company);
+            }
+        });
+    }
+
+    //zapise portfolio do CSV vo formate ContractImporter (dcerske zmluvy flotily nasleduju za svojou master zmluvou)
+    public void write(Path file, int size) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Súbor file nesmie byť null.");
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(ContractImporter.CSV_HEADER);
+            out.write('\n'); //ako riadky z toCsv, nie System.lineSeparator()
+            IOException[] failure = new IOException[1];
+            forEachBatch(size, index -> generate(index).toCsv(), String[]::new, rows -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    for (String row : rows) {
+                        out.write(row);
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+
+    private interface Generator<T> {
+        T generate(int index);
+    }
+
+    private interface BatchConsumer<T> {
+        void accept(T[] batch);
+    }
+
+    //davka k+1 sa generuje paralelne, kym sa davka k zapisuje
+    private <T> void forEachBatch(int size, Generator<T> generator, IntFunction<T[]> array,
+                                  BatchConsumer<T> consumer) {
+        if (size < 0 || (long) size * PLATES_PER_UNIT > PLATE_COUNT) {
+            throw new IllegalArgumentException("Neplatná veľkosť portfólia.");
+        }
+        CompletableFuture<T[]> next = generateBatch(0, size, generator, array);
+        for (int start = 0; start < size; start += BATCH) {
+            T[] batch = next.join();
+            if (start + BATCH < size) {
+                next = generateBatch(start + BATCH, size, generator, array);
+            }
+            consumer.accept(batch);
+        }
+    }
+
+    private <T> CompletableFuture<T[]> generateBatch(int start, int size, Generator<T> generator,
+                                                     IntFunction<T[]> array) {
+        int end = Math.min(size, start + BATCH);
+        return CompletableFuture.supplyAsync(() ->
+                IntStream.range(start, end).parallel().mapToObj(generator::generate).toArray(array));
+    }
+
+    //jednotka s danym poradim
+    Unit generate(int index) {
+        SplittableRandom random = new SplittableRandom(mix(seed + index));
+        int customers = customerCount(index);
+        double kind = random.nextDouble();
+        if (kind < fleetShare) {
+            Person holder = legalPerson(random, customers);
+            Person beneficiary = random.nextInt(10) == 0 ? naturalPerson(random, customers) : null;
+            int vehicles = 2 + random.nextInt(MAX_FLEET - 1);
+            List<VehicleRow> children = new ArrayList<>(vehicles);
+            for (int i = 0; i < vehicles; i++) {
+                children.add(vehicleRow(random, "F" + index + "-" + i, holder, null, index, i));
+            }
+            return new FleetUnit("M" + index, holder, beneficiary, children);
+        }
+        if (kind < fleetShare + travelShare) {
+            Person holder = random.nextInt(5) == 0 ? legalPerson(random, customers) : naturalPerson(random, customers);
+            int groupSize = 1 + random.nextInt(MAX_TRAVEL_GROUP);
+            Set<Integer> chosen = new LinkedHashSet<>(); //Person nema equals, rozne osoby sa vyberaju podla poradia
+            while (chosen.size() < Math.min(groupSize, customers)) {
+                chosen.add(random.nextInt(customers));
+            }
+            Set<Person> insured = new LinkedHashSet<>();
+            for (int customer : chosen) {
+                insured.add(new Person(birthNumber(customer)));
+            }
+            PremiumPaymentFrequency frequency = frequency(random);
+            int periods = 12 / frequency.getValueInMonths();
+            int premium = ceilDiv(insured.size() * (5 + random.nextInt(20)), periods);
+            return new TravelUnit("T" + index, holder, premium, frequency, insured);
+        }
+        Person holder;
+        int holderIndex = -1;
+        if (random.nextInt(5) == 0) {
+            holder = legalPerson(random, customers);
+        } else {
+            holderIndex = random.nextInt(customers);
+            holder = new Person(birthNumber(holderIndex));
+        }
+        Person beneficiary = null;
+        if (random.nextInt(3) == 0 && customers > 1) {
+            int beneficiaryIndex = random.nextInt(customers - 1); //beneficient nesmie byt poistnik
+            beneficiary = new Person(birthNumber(beneficiaryIndex < holderIndex || holderIndex < 0
+                    ? beneficiaryIndex : beneficiaryIndex + 1));
+        }
+        return vehicleRow(random, "V" + index, holder, beneficiary, index, 0);
+    }
+
+    private VehicleRow vehicleRow(SplittableRandom random, String number, Person holder, Person beneficiary,
+                                  int unit, int vehicle) {
+        //cena vozidla 3 000 - 80 000 s vacsinou lacnejsich vozidiel, rocne poistne 2-6 % ceny
+        int value = (int) (3_000 * Math.exp(random.nextDouble() * Math.log(80_000 / 3_000.0)));
+        PremiumPaymentFrequency frequency = frequency(random);
+        int periods = 12 / frequency.getValueInMonths();
+        int premium = ceilDiv((int) Math.ceil(value * (0.02 + random.nextDouble() * 0.04)), periods);
+        return new VehicleRow(number, holder, beneficiary, premium, frequency,
+                new Vehicle(licensePlate((long) unit * PLATES_PER_UNIT + vehicle), value));
+    }
+
+    //mesacne platby su najcastejsie
+    private static PremiumPaymentFrequency frequency(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 45) {
+            return PremiumPaymentFrequency.MONTHLY;
+        } else if (roll < 70) {
+            return PremiumPaymentFrequency.QUARTERLY;
+        } else if (roll < 80) {
+            return PremiumPaymentFrequency.SEMI_ANNUAL;
+        }
+        return PremiumPaymentFrequency.ANNUAL;
+    }
+
+    //zakaznici pribudaju s portfoliom - jednotka vybera len z tych, co uz "existuju", takze nezavisi od size
+    private static int customerCount(int index) {
+        return Math.max(1, index / 2 + 1);
+    }
+
+    private static Person naturalPerson(SplittableRandom random, int customers) {
+        return new Person(birthNumber(random.nextInt(customers)));
+    }
+
+    private static Person legalPerson(SplittableRandom random, int customers) {
+        return new Person(registrationNumber(random.nextInt(Math.max(1, customers / 10))));
+    }
+
+    //10-miestne rodne cislo delitelne 11 (rocniky 00-99, muzi aj zeny), pre i do 60 milionov su rozne
+    public static String birthNumber(int i) {
+        int year = i % 100;
+        int month = 1 + (i / 100) % 24;
+        if (month > 12) {
+            month += 38; //zena: 51-62
+        }
+        int day = 1 + (i / (100 * 24)) % 28;
+        int serial = (i / (100 * 24 * 28)) % 900;
+        long number = ((year * 100L + month) * 100 + day) * 10_000;
+        number += (11 - number % 11) % 11 + serial * 11L;
+        return String.format("%010d", number);
+    }
+
+    //8-miestne ICO
+    public static String registrationNumber(int i) {
+        return String.format("%08d", i);
+    }
+
+    //EC v tvare AA000AA, pre i do 26^4 * 1000 su rozne
+    public static String licensePlate(long i) {
+        char[] plate = new char[7];
+        plate[6] = (char) ('A' + i % 26);
+        i /= 26;
+        plate[5] = (char) ('A' + i % 26);
+        i /= 26;
+        for (int d = 4; d >= 2; d--) {
+            plate[d] = (char) ('0' + i % 10);
+            i /= 10;
+        }
+        plate[1] = (char) ('A' + i % 26);
+        i /= 26;
+        plate[0] = (char) ('A' + i % 26);
+        return new String(plate);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    //SplitMix64 - susedne seed + index daju nezavisle generatory
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String csvRow(String type, String number, Person holder, Person beneficiary, String premium,
+                                 String frequency, String plate, String value, String master, String insured) {
+        return type + ',' + number + ',' + holder.getId() + ',' + (beneficiary == null ? "" : beneficiary.getId())
+                + ',' + premium + ',' + frequency + ',' + plate + ',' + value + ',' + master + ',' + insured + '\n';
+    }
+
+    //jedna vygenerovana jednotka portfolia
+    abstract static class Unit {
+        abstract void insure(InsuranceCompany company);
+
+        abstract String toCsv();
+    }
+
+    static final class VehicleRow extends Unit {
+        private final String number;
+        private final Person holder;
+        private final Person beneficiary;
+        private final int premium;
+        private final PremiumPaymentFrequency frequency;
+        private final Vehicle vehicle;
+
+        VehicleRow(String number, Person holder, Person beneficiary, int premium,
+                   PremiumPaymentFrequency frequency, Vehicle vehicle) {
+            this.number = number;
+            this.holder = holder;
+            this.beneficiary = beneficiary;
+            this.premium = premium;
+            this.frequency = frequency;
+            this.vehicle = vehicle;
+        }
+
+        @Override
+        void insure(InsuranceCompany company) {
+            insureVehicle(company);
+        }
+
+        SingleVehicleContract insureVehicle(InsuranceCompany company) {
+            return company.insureVehicle(number, beneficiary, holder, premium, frequency, vehicle);
+        }
+
+        @Override
+        String toCsv() {
+            return toCsv("");
+        }
+
+        String toCsv(String master) {
+            return csvRow("VEHICLE", number, holder, beneficiary, Integer.toString(premium), frequency.name(),
+                    vehicle.getLicensePlate(), Integer.toString(vehicle.getOriginalValue()), master, "");
+        }
+    }
+
+    static final class FleetUnit extends Unit {
+        private final String number;
+        private final Person holder;
+        private final Person beneficiary;
+        private final List<VehicleRow> vehicles;
+
+        FleetUnit(String number, Person holder, Person beneficiary, List<VehicleRow> vehicles) {
+            this.number = number;
+            this.holder = holder;
+            this.beneficiary = beneficiary;
+            this.vehicles = vehicles;
+        }
+
+        @Override
+        void insure(InsuranceCompany company) {
+            MasterVehicleContract master = company.createMasterVehicleContract(number, beneficiary, holder);
+            for (VehicleRow vehicle : vehicles) {
+                company.moveSingleVehicleContractToMasterVehicleContract(master, vehicle.insureVehicle(company));
+            }
+        }
+
+        @Override
+        String toCsv() {
+            StringBuilder rows = new StringBuilder();
+            rows.append(csvRow("MASTER", number, holder, beneficiary, "", "", "", "", "", ""));
+            for (VehicleRow vehicle : vehicles) {
+                rows.append(vehicle.toCsv(number));
+            }
+            return rows.toString();
+        }
+    }
+
+    static final class TravelUnit extends Unit {
+        private final String number;
+        private final Person holder;
+        private final int premium;
+        private final PremiumPaymentFrequency frequency;
+        private final Set<Person> insured;
+
+        TravelUnit(String number, Person holder, int premium, PremiumPaymentFrequency frequency, Set<Person> insured) {
+            this.number = number;
+            this.holder = holder;
+            this.premium = premium;
+            this.frequency = frequency;
+            this.insured = insured;
+        }
+
+        @Override
+        void insure(InsuranceCompany company) {
+            company.insurePersons(number, holder, premium, frequency, insured);
+        }
+
+        @Override
+        String toCsv() {
+            StringBuilder ids = new StringBuilder();
+            for (Person person : insured) {
+                if (ids.length() > 0) {
+                    ids.append(';');
+                }
+                ids.append(person.getId());
+            }
+            return csvRow("TRAVEL", number, holder, null, Integer.toString(premium), frequency.name(),
+                    "", "", "", ids.toString());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import company.CompanySnapshot;
+import company.InsuranceCompany;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import payment.PaymentDataStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+//JMH meranie zapisu snimku a studeneho startu zo snimku; spustenie ako CoreBenchmarks, napr.
+//  java -jar benchmarks/target/benchmarks.jar SnapshotBenchmark -p size=1000000 -p offHeap=true
+//offHeap plati pre sklad platobnych udajov zapisovanej aj obnovenej poistovne
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgs = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+    private static final long SEED = 42;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean offHeap;
+
+    private InsuranceCompany company;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        company = new InsuranceCompany(START, new PaymentDataStore(offHeap));
+        new PortfolioGenerator(SEED).populate(company, size);
+        file = Files.createTempFile("insurance", ".snapshot");
+        CompanySnapshot.write(company, file); //aby restore mal co citat aj bez merania write
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        CompanySnapshot.write(company, file);
+    }
+
+    @Benchmark
+    public InsuranceCompany restore() throws IOException {
+        return CompanySnapshot.read(file, new PaymentDataStore(offHeap));
+    }
+}
@@ -0,0 +1,98 @@
+package company;
+
+import contracts.AbstractContract;
+import payment.ContractPaymentData;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+
+//planovac zauctovania - zmluvy su v prioritnom rade podla najblizsieho terminu splatnosti,
+//takze pri posune casu sa prejdu len tie zmluvy, ktorym termin uz nastal
+//rad je chraneny vlastnym monitorom, platobne udaje zmluvy sa menia pod zamkom zmluvy
+//terminy v rade su primitivne (datum a cas dna), preradenie zmluvy nevytvara LocalDateTime ani novy zaznam
+class BillingScheduler {
+    private final PriorityQueue<ScheduledCharge> queue;
+    private final Set<AbstractContract> scheduled; //aby bola kazda zmluva v rade najviac raz
+
+    //Konštruktor:
+    BillingScheduler() {
+        this.queue = new PriorityQueue<>();
+        this.scheduled = new HashSet<>();
+    }
+
+    //zaradi zmluvu s vlastnymi platobnymi udajmi (nie master zmluvu) do radu
+    synchronized void schedule(AbstractContract contract) {
+        if (scheduled.add(contract)) {
+            ScheduledCharge charge = new ScheduledCharge(contract);
+            charge.update(contract.getContractPaymentData());
+            queue.add(charge);
+        }
+    }
+
+    //zauctuje vsetky splatne zmluvy; zmluvy, ktore sa uz nemaju uctovat (neaktivne, odstranene), z radu vypadnu
+    synchronized BillingSummary chargeDue(LocalDateTime currentTime, Predicate<AbstractContract> isBillable,
+                                          ContractLocks locks) {
+        int charged = 0;
+        long accrued = 0;
+
+        long currentDate = ContractPaymentData.packDate(currentTime);
+        long currentNano = currentTime.toLocalTime().toNanoOfDay();
+
+        while (!queue.isEmpty() && queue.peek().isDue(currentDate, currentNano)) {
+            ScheduledCharge charge = queue.poll();
+            AbstractContract contract = charge.contract;
+            if (!isBillable.test(contract)) {
+                scheduled.remove(contract);
+                continue;
+            }
+
+            //termin v rade moze byt starsi, ak zmluvu medzicasom zauctoval niekto iny - vtedy sa len preradi
+            ContractPaymentData data = contract.getContractPaymentData();
+            Lock lock = locks.lockFor(contract);
+            lock.lock();
+            try {
+                int periods = data.chargeDuePremiums(currentTime);
+                if (periods > 0) {
+                    charged++;
+                    accrued += (long) periods * data.getPremium();
+                }
+                charge.update(data);
+            } finally {
+                lock.unlock();
+            }
+            queue.add(charge);
+        }
+
+        return new BillingSummary(charged, accrued);
+    }
+
+    //zaznam sa meni len mimo radu (po poll, pred add), inak by sa rozbilo poradie v halde
+    private static final class ScheduledCharge implements Comparable<ScheduledCharge> {
+        private final AbstractContract contract;
+        private long dueDate;
+        private long dueNano;
+
+        private ScheduledCharge(AbstractContract contract) {
+            this.contract = contract;
+        }
+
+        private void update(ContractPaymentData data) {
+            this.dueDate = data.getNextPaymentDate();
+            this.dueNano = data.getNextPaymentNanoOfDay();
+        }
+
+        private boolean isDue(long currentDate, long currentNano) {
+            return dueDate < currentDate || (dueDate == currentDate && dueNano <= currentNano);
+        }
+
+        @Override
+        public int compareTo(ScheduledCharge other) {
+            int byDate = Long.compare(this.dueDate, other.dueDate);
+            return byDate != 0 ? byDate : Long.compare(this.dueNano, other.dueNano);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package company;
+
+//vysledok zauctovania poistneho - kolko zmlov malo nieco splatne a kolko sa spolu zauctovalo
+public class BillingSummary {
+    private final int chargedContracts;
+    private final long totalAccrued;
+
+    //Konštruktor:
+    public BillingSummary(int chargedContracts, long totalAccrued) {
+        if (chargedContracts < 0 || totalAccrued < 0) {
+            throw new IllegalArgumentException("Počet zmlúv ani zaúčtovaná suma nesmú byť záporné.");
+        }
+        this.chargedContracts = chargedContracts;
+        this.totalAccrued = totalAccrued;
+    }
+
+    public int getChargedContracts() {
+        return chargedContracts;
+    }
+
+    public long getTotalAccrued() {
+        return totalAccrued;
+    }
+
+    //spoji dva ciastkove vysledky (z dvoch casti portfolia)
+    public BillingSummary combine(BillingSummary other) {
+        return new BillingSummary(chargedContracts + other.chargedContracts, totalAccrued + other.totalAccrued);
+    }
+}
@@ -0,0 +1,62 @@
+package company;
+
+import contracts.AbstractContract;
+import payment.ContractPaymentData;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+
+//fork-join uloha, ktora zauctuje poistne na casti zoznamu zmlov
+//kazda zmluva v zozname ma vlastne platobne udaje, takze ulohy nezdielaju ziadny stav
+class BillingTask extends RecursiveTask<BillingSummary> {
+    private static final long serialVersionUID = 1L; //RecursiveTask je Serializable
+    private static final int THRESHOLD = 2048; //pod tuto velkost uz nedelime, ratame priamo
+
+    private final List<AbstractContract> contracts;
+    private final int from;
+    private final int to;
+    private final LocalDateTime currentTime;
+    private final ContractLocks locks;
+
+    //Konštruktor:
+    BillingTask(List<AbstractContract> contracts, int from, int to, LocalDateTime currentTime, ContractLocks locks) {
+        this.contracts = contracts;
+        this.from = from;
+        this.to = to;
+        this.currentTime = currentTime;
+        this.locks = locks;
+    }
+
+    @Override
+    protected BillingSummary compute() {
+        if (to - from <= THRESHOLD) {
+            int charged = 0;
+            long accrued = 0;
+            for (int i = from; i < to; i++) {
+                AbstractContract contract = contracts.get(i);
+                ContractPaymentData data = contract.getContractPaymentData();
+                Lock lock = locks.lockFor(contract);
+                lock.lock();
+                try {
+                    int periods = data.chargeDuePremiums(currentTime);
+                    if (periods > 0) {
+                        charged++;
+                        accrued += (long) periods * data.getPremium();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return new BillingSummary(charged, accrued);
+        }
+
+        int middle = (from + to) >>> 1;
+        BillingTask left = new BillingTask(contracts, from, middle, currentTime, locks);
+        BillingTask right = new BillingTask(contracts, middle, to, currentTime, locks);
+        left.fork();
+        BillingSummary rightResult = right.compute();
+        return left.join().combine(rightResult);
+    }
+}
@@ -0,0 +1,463 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+//binarny zapis vsetkych menjacich operacii poistovne do suboru, ktory sa len predlzuje (write-ahead log)
+//po havarii sa stav obnovi tak, ze sa zaznamy prehraju na novej poistovni (replay)
+//
+//zaznam: dlzka (int), CRC32 obsahu (int), obsah = typ (byte), cas poistovne (long sekundy UTC, int nano), udaje
+//operacia sa zapise az ked prebehla, pod tym istym zamkom, pod ktorym menila stav, takze poradie zaznamov
+//jednej zmluvy je poradie zmien; volajuci sa vrati az ked je zaznam na disku (commit)
+//
+//zaznam sa pise az po zmene (log je skor redo log vykonanych operacii ako write-ahead log): operacia, ktora
+//neprejde kontrolami, sa do logu vobec nedostane; ked ale zlyha zapis na disk, operacie z neulozeneho baliku
+//uz v pamati prebehli a ich volajuci dostanu UncheckedIOException - stav v pamati je potom pred logom a plati
+//log, poistovnu treba obnovit prehranim (replay); zlyhany log uz dalsie zaznamy neprijme a poistovna aj
+//PaymentHandler odmietnu kazdu dalsiu operaciu este pred zmenou stavu (ensureWritable), rovnako po close
+//
+//group commit: zaznamy sa zbieraju v pamati, prve vlakno, ktore caka na commit, zapise a fsyncne vsetko
+//co sa dovtedy nazbieralo, ostatne vlakna len pockaju - jeden fsync potvrdi cely balik platieb
+//
+//beh zauctovania celeho portfolia sa zapisuje ako jeden zaznam za cely beh, nie po zmluvach; s pripojenym
+//logom bezi pod zapisovym zamkom struktury, takze sa neprekryva s platbou master zmluvy ani s poistnou
+//udalostou a prehranie rozdeli preplatok rovnako ako povodny beh (obycajne platby a zauctovanie jednej
+//zmluvy sa s behom zamenit daju); zauctovanie jednej zmluvy (chargePremiumOnContract) je vlastny zaznam
+public class CommandLog implements Closeable {
+    private static final byte CLOCK = 1;
+    private static final byte INSURE_VEHICLE = 2;
+    private static final byte INSURE_PERSONS = 3;
+    private static final byte CREATE_MASTER = 4;
+    private static final byte MOVE = 5;
+    private static final byte PAY = 6;
+    private static final byte VEHICLE_CLAIM = 7;
+    private static final byte TRAVEL_CLAIM = 8;
+    private static final byte CHARGE = 9;
+    private static final byte CHARGE_CONTRACT = 10;
+
+    private static final int HEADER = 8; //dlzka + CRC
+
+    private final FileChannel channel;
+    private ByteArrayOutputStream pending; //zaznamy, ktore este nie su na disku
+    private long appended; //koniec zaznamov (aj nezapisanych) od zaciatku suboru
+    private long durable; //po tuto poziciu je subor fsyncnuty
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+
+    //Konštruktor:
+    //otvori (alebo vytvori) log; neuplny zaznam na konci (havaria pocas zapisu) sa odreze
+    public CommandLog(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Súbor file nesmie byť null.");
+        }
+        long valid = Files.exists(file) ? validLength(file) : 0;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(valid);
+        channel.position(valid);
+        channel.force(true);
+        this.pending = new ByteArrayOutputStream();
+        this.appended = valid;
+        this.durable = valid;
+    }
+
+    //zapise vsetko nazbierane a pocka na fsync
+    public void sync() {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        awaitDurable(target);
+    }
+
+    //zaznamy zapisane pred zatvorenim sa este ulozia, dalsie sa odmietnu
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            channel.close();
+            throw e.getCause();
+        }
+        channel.close();
+    }
+
+    //--- zapis (vola poistovna a PaymentHandler pod zamkom operacie, awaitDurable az po jeho uvolneni) ---
+
+    long clock(LocalDateTime time) {
+        return append(record(CLOCK, time));
+    }
+
+    long insureVehicle(LocalDateTime time, SingleVehicleContract contract) {
+        RecordWriter out = record(INSURE_VEHICLE, time);
+        out.string(contract.getContractNumber());
+        out.person(contract.getBeneficiary());
+        out.person(contract.getPolicyHolder());
+        out.integer(contract.getContractPaymentData().getPremium());
+        out.integer(contract.getContractPaymentData().getPremiumPaymentFrequency().ordinal());
+        out.string(contract.getInsuredVehicle().getLicensePlate());
+        out.integer(contract.getInsuredVehicle().getOriginalValue());
+        return append(out);
+    }
+
+    long insurePersons(LocalDateTime time, TravelContract contract) {
+        RecordWriter out = record(INSURE_PERSONS, time);
+        out.string(contract.getContractNumber());
+        out.person(contract.getPolicyHolder());
+        out.integer(contract.getContractPaymentData().getPremium());
+        out.integer(contract.getContractPaymentData().getPremiumPaymentFrequency().ordinal());
+        out.persons(contract.getInsuredPersons());
+        return append(out);
+    }
+
+    long createMaster(LocalDateTime time, MasterVehicleContract contract) {
+        RecordWriter out = record(CREATE_MASTER, time);
+        out.string(contract.getContractNumber());
+        out.person(contract.getBeneficiary());
+        out.person(contract.getPolicyHolder());
+        return append(out);
+    }
+
+    long move(LocalDateTime time, MasterVehicleContract master, SingleVehicleContract single) {
+        RecordWriter out = record(MOVE, time);
+        out.string(master.getContractNumber());
+        out.string(single.getContractNumber());
+        return append(out);
+    }
+
+    //volane z PaymentHandler cez PaymentJournal poistovne
+    long pay(LocalDateTime time, AbstractContract contract, int amount) {
+        RecordWriter out = record(PAY, time);
+        out.string(contract.getContractNumber());
+        out.integer(amount);
+        return append(out);
+    }
+
+    long vehicleClaim(LocalDateTime time, SingleVehicleContract contract, int expectedDamages) {
+        RecordWriter out = record(VEHICLE_CLAIM, time);
+        out.string(contract.getContractNumber());
+        out.integer(expectedDamages);
+        return append(out);
+    }
+
+    long travelClaim(LocalDateTime time, TravelContract contract, Set<Person> affectedPersons) {
+        RecordWriter out = record(TRAVEL_CLAIM, time);
+        out.string(contract.getContractNumber());
+        out.persons(affectedPersons);
+        return append(out);
+    }
+
+    long charge(LocalDateTime time) {
+        return append(record(CHARGE, time));
+    }
+
+    long chargeContract(LocalDateTime time, AbstractContract contract) {
+        RecordWriter out = record(CHARGE_CONTRACT, time);
+        out.string(contract.getContractNumber());
+        return append(out);
+    }
+
+    private RecordWriter record(byte type, LocalDateTime time) {
+        RecordWriter out = new RecordWriter();
+        out.type(type);
+        out.time(time);
+        return out;
+    }
+
+    //vyhodi vynimku, ak log uz zaznamy neprijima (je zatvoreny alebo mu zlyhal zapis)
+    synchronized void ensureWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Zápis do logu zlyhal.", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Log je zatvorený.");
+        }
+    }
+
+    //vrati poziciu konca zaznamu - na tu sa potom caka v awaitDurable
+    private synchronized long append(RecordWriter record) {
+        ensureWritable();
+        byte[] payload = record.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        writeInt(pending, payload.length);
+        writeInt(pending, (int) crc.getValue());
+        pending.write(payload, 0, payload.length);
+        appended += HEADER + payload.length;
+        return appended;
+    }
+
+    //pocka, kym je subor fsyncnuty aspon po position; ak nikto nezapisuje, zapise vsetko nazbierane sam
+    public void awaitDurable(long position) {
+        ByteArrayOutputStream batch;
+        long target;
+        synchronized (this) {
+            while (true) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Zápis do logu zlyhal.", failure);
+                }
+                if (durable >= position) {
+                    return;
+                }
+                if (!flushing) {
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Čakanie na zápis do logu bolo prerušené.", e);
+                }
+            }
+            //toto vlakno zapise cely nazbierany balik, nove zaznamy sa medzitym zbieraju do dalsieho
+            flushing = true;
+            batch = pending;
+            pending = new ByteArrayOutputStream();
+            target = appended;
+        }
+
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            flushing = false;
+            if (error != null) {
+                failure = error; //ostatne zaznamy uz nemusia ist za tymto, log sa dalej nepouziva
+            } else {
+                durable = target;
+            }
+            notifyAll();
+            if (error != null) {
+                throw new UncheckedIOException("Zápis do logu zlyhal.", error);
+            }
+        }
+    }
+
+    //--- prehranie ---
+
+    //prehra zaznamy zo suboru na poistovni (mala by byt nova, s rovnakym casom ako pri vzniku logu)
+    //a vrati pocet prehranych zaznamov; neuplny zaznam na konci sa ignoruje
+    public static int replay(Path file, InsuranceCompany company) throws IOException {
+        if (file == null || company == null) {
+            throw new IllegalArgumentException("Žiadny parameter nesmie byť null.");
+        }
+        int count = 0;
+        LocalDateTime clock = company.getCurrentTime();
+        long remaining = Files.size(file);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            byte[] payload;
+            while ((payload = readRecord(in, remaining)) != null) {
+                remaining -= HEADER + payload.length;
+                clock = apply(new DataInputStream(new ByteArrayInputStream(payload)), company, clock);
+                count++;
+            }
+        }
+        company.setCurrentTime(clock);
+        return count;
+    }
+
+    //operacia prebehne v rovnakom case ako povodne; vrati cas poistovne po operacii - ten menia len zaznamy CLOCK
+    //(platba mohla precitat cas tesne pred jeho zmenou a do logu sa dostat az po nej)
+    private static LocalDateTime apply(DataInputStream in, InsuranceCompany company, LocalDateTime clock)
+            throws IOException {
+        byte type = in.readByte();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        company.setCurrentTime(time);
+
+        switch (type) {
+            case CLOCK -> clock = time;
+            case INSURE_VEHICLE -> {
+                String number = in.readUTF();
+                Person beneficiary = readPerson(in, company);
+                Person policyHolder = readPerson(in, company);
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[in.readInt()];
+                Vehicle vehicle = new Vehicle(in.readUTF(), in.readInt());
+                company.insureVehicle(number, beneficiary, policyHolder, premium, frequency, vehicle);
+            }
+            case INSURE_PERSONS -> {
+                String number = in.readUTF();
+                Person policyHolder = readPerson(in, company);
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[in.readInt()];
+                company.insurePersons(number, policyHolder, premium, frequency, readPersons(in, company));
+            }
+            case CREATE_MASTER -> {
+                String number = in.readUTF();
+                Person beneficiary = readPerson(in, company);
+                Person policyHolder = readPerson(in, company);
+                company.createMasterVehicleContract(number, beneficiary, policyHolder);
+            }
+            case MOVE -> company.moveSingleVehicleContractToMasterVehicleContract(
+                    (MasterVehicleContract) find(company, in.readUTF()),
+                    (SingleVehicleContract) find(company, in.readUTF()));
+            case PAY -> {
+                AbstractContract contract = find(company, in.readUTF());
+                contract.pay(in.readInt()); //master zmluva plati cez svoju verziu pay
+            }
+            case VEHICLE_CLAIM -> company.processClaim((SingleVehicleContract) find(company, in.readUTF()), in.readInt());
+            case TRAVEL_CLAIM -> company.processClaim((TravelContract) find(company, in.readUTF()),
+                    readPersons(in, company));
+            case CHARGE -> company.chargeDuePremiumsOnContracts(); //rovnaky vysledok ako plne zauctovanie
+            case CHARGE_CONTRACT -> company.chargePremiumOnContract(find(company, in.readUTF())); //aj dcerska zmluva
+            default -> throw new IOException("Neznámy typ záznamu " + type + ".");
+        }
+        return clock;
+    }
+
+    private static AbstractContract find(InsuranceCompany company, String contractNumber) {
+        AbstractContract contract = company.findContract(contractNumber);
+        if (contract == null) {
+            throw new InvalidContractException("Zmluva " + contractNumber + " v logu neexistuje.");
+        }
+        return contract;
+    }
+
+    private static Person readPerson(DataInputStream in, InsuranceCompany company) throws IOException {
+        String id = in.readUTF();
+        return id.isEmpty() ? null : company.getPersons().register(id);
+    }
+
+    private static Set<Person> readPersons(DataInputStream in, InsuranceCompany company) throws IOException {
+        int count = in.readInt();
+        Set<Person> persons = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            persons.add(readPerson(in, company));
+        }
+        return persons;
+    }
+
+    //dlzka platnej casti suboru - po prvy neuplny alebo poskodeny zaznam
+    private static long validLength(Path file) throws IOException {
+        long length = 0;
+        long size = Files.size(file);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            byte[] payload;
+            while ((payload = readRecord(in, size - length)) != null) {
+                length += HEADER + payload.length;
+            }
+        }
+        return length;
+    }
+
+    //null = koniec suboru alebo neuplny/poskodeny zaznam (havaria pocas zapisu)
+    //zaznam nema pevny limit dlzky (velka skupina v cestovnom poisteni); dlzka vacsia ako zvysok suboru
+    //je poskodena hlavicka, takze sa nealokuje viac, nez ma subor
+    private static byte[] readRecord(InputStream in, long remaining) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            int length = data.readInt();
+            int crc = data.readInt();
+            if (length <= 0 || length > remaining - HEADER) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            data.readFully(payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            return (int) check.getValue() == crc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    //obsah jedneho zaznamu
+    private static final class RecordWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        void type(byte type) {
+            try {
+                out.writeByte(type);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); //do pamate sa zapisat da vzdy
+            }
+        }
+
+        void time(LocalDateTime time) {
+            try {
+                out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(time.getNano());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void integer(int value) {
+            try {
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void string(String value) {
+            try {
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        //osoba sa zapisuje len ako id, prazdne id = null (platne id nikdy nie je prazdne)
+        void person(Person person) {
+            string(person == null ? "" : person.getId());
+        }
+
+        void persons(Set<Person> persons) {
+            integer(persons.size());
+            for (Person person : persons) {
+                person(person);
+            }
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
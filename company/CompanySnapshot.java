@@ -0,0 +1,487 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.AbstractVehicleContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PaymentCursor;
+import payment.PaymentDataStore;
+import payment.PaymentLedger;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+//binarny snimok celej poistovne (osoby, zmluvy, vozidla, master zmluvy s dcerskymi, platobne udaje, historia platieb)
+//zapisuje sa aj cita cez pamatovo mapovany subor; obnova sklada objekty priamo, bez kontrol insureVehicle/insurePersons
+//
+//format: hlavicka, cas poistovne, tabulka osob, zmluvy, platby - osoby a zmluvy sa odkazuju poradovym cislom v subore
+//dcerske zmluvy su zapisane pred svojou master zmluvou, zmluva v dvoch master zmluvach je zapisana len raz
+//snimok je obraz jedneho okamihu: osoby a zmluvy sa zapisuju pod zapisovym zamkom struktury a zamkami vsetkych
+//zmlov, spolu s poctom platieb kazdej zmluvy; historia sa potom zapisuje uz bez zamkov poistovne, po strankach
+//kurzora, a platby zaplatene po tomto okamihu (s vyssim poradovym cislom v zmluve) sa vynechaju
+//master zmluva ma zapisany vlastny stav, nie stav flotily (ten vyplyva zo stavu dcerskych zmlov)
+public final class CompanySnapshot {
+    private static final int MAGIC = 0x494E5353; //"INSS"
+    private static final int VERSION = 1;
+
+    private static final byte SINGLE = 1;
+    private static final byte TRAVEL = 2;
+    private static final byte MASTER = 3;
+
+    private CompanySnapshot() {
+    }
+
+    public static void write(InsuranceCompany company, Path file) throws IOException {
+        if (company == null || file == null) {
+            throw new IllegalArgumentException("Žiadny parameter nesmie byť null.");
+        }
+        try (MappedWriter out = new MappedWriter(file)) {
+            Map<AbstractContract, Integer> contractIndex = new IdentityHashMap<>();
+            int[] paymentCounts;
+            ContractLocks locks = company.getLocks();
+            locks.writeLock().lock();
+            List<Lock> locked = locks.lockAll();
+            try {
+                paymentCounts = writeState(company, contractIndex, out);
+            } finally {
+                locks.unlockAll(locked);
+                locks.writeLock().unlock();
+            }
+            writePayments(company, contractIndex, paymentCounts, out);
+        }
+    }
+
+    //vrati pocet platieb kazdej zapisanej zmluvy v okamihu snimky
+    private static int[] writeState(InsuranceCompany company, Map<AbstractContract, Integer> contractIndex,
+                                    MappedWriter out) {
+        //poradie zapisu: najprv dcerske zmluvy, potom zmluvy poistovne v ich poradi
+        List<AbstractContract> order = new ArrayList<>();
+        for (AbstractContract contract : company.getContracts()) {
+            if (contract instanceof MasterVehicleContract master) {
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    if (!contractIndex.containsKey(child)) {
+                        contractIndex.put(child, order.size());
+                        order.add(child);
+                    }
+                }
+            }
+            contractIndex.put(contract, order.size());
+            order.add(contract);
+        }
+
+        //osoby z registra aj tie, ktore su na zmluvach pridanych mimo poistovne
+        Map<Person, Integer> personIndex = new IdentityHashMap<>();
+        List<Person> persons = new ArrayList<>();
+        for (Person person : company.getPersons().getPersons()) {
+            personIndex.put(person, persons.size());
+            persons.add(person);
+        }
+        int registered = persons.size();
+        for (AbstractContract contract : order) {
+            collectPersons(contract, personIndex, persons);
+        }
+
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putTime(company.getCurrentTime());
+
+        out.putInt(persons.size());
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            out.putString(person.getId());
+            out.putInt(person.getPaidOutAmount());
+            out.putByte(i < registered ? 1 : 0);
+        }
+
+        PaymentLedger ledger = company.getHandler().getPaymentLedger();
+        int[] paymentCounts = new int[order.size()];
+        out.putInt(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            AbstractContract contract = order.get(i);
+            writeContract(contract, company, contractIndex, personIndex, out);
+            paymentCounts[i] = ledger.getPaymentCount(contract);
+        }
+        return paymentCounts;
+    }
+
+    //platby v poradi podla casu; platby zmlov, ktore uz v poistovni nie su, sa do snimku nedostanu
+    private static void writePayments(InsuranceCompany company, Map<AbstractContract, Integer> contractIndex,
+                                      int[] paymentCounts, MappedWriter out) throws IOException {
+        PaymentCursor cursor = company.getHandler().getPaymentLedger().cursor(LocalDateTime.MIN, LocalDateTime.MAX);
+        long countPosition = out.position();
+        out.putInt(0);
+        int count = 0;
+        while (cursor.next()) {
+            Integer index = contractIndex.get(cursor.getContract());
+            if (index != null && cursor.getSequence() < paymentCounts[index]) {
+                out.putInt(index);
+                out.putLong(cursor.getEpochSecond());
+                out.putInt(cursor.getNano());
+                out.putInt(cursor.getAmount());
+                count++;
+            }
+        }
+        out.putIntAt(countPosition, count);
+    }
+
+    private static void collectPersons(AbstractContract contract, Map<Person, Integer> personIndex, List<Person> persons) {
+        addPerson(contract.getPolicyHolder(), personIndex, persons);
+        if (contract instanceof AbstractVehicleContract vehicleContract) {
+            addPerson(vehicleContract.getBeneficiary(), personIndex, persons);
+        }
+        if (contract instanceof TravelContract travelContract) {
+            for (Person person : travelContract.getInsuredPersons()) {
+                addPerson(person, personIndex, persons);
+            }
+        }
+    }
+
+    private static void addPerson(Person person, Map<Person, Integer> personIndex, List<Person> persons) {
+        if (person != null && !personIndex.containsKey(person)) {
+            personIndex.put(person, persons.size());
+            persons.add(person);
+        }
+    }
+
+    private static void writeContract(AbstractContract contract, InsuranceCompany company,
+                                      Map<AbstractContract, Integer> contractIndex,
+                                      Map<Person, Integer> personIndex, MappedWriter out) {
+        byte kind = contract instanceof MasterVehicleContract ? MASTER
+                : contract instanceof TravelContract ? TRAVEL : SINGLE;
+        out.putByte(kind);
+        out.putString(contract.getContractNumber());
+        out.putInt(personIndex.get(contract.getPolicyHolder()));
+        out.putByte(company.getContracts().contains(contract) ? 1 : 0); //zmluva poistovne, nie len dcerska
+        boolean active = contract instanceof MasterVehicleContract master ? master.isActiveItself() : contract.isActive();
+        out.putByte(active ? 1 : 0);
+        out.putInt(contract.getCoverageAmount());
+
+        if (contract instanceof AbstractVehicleContract vehicleContract) {
+            Person beneficiary = vehicleContract.getBeneficiary();
+            out.putInt(beneficiary == null ? -1 : personIndex.get(beneficiary));
+        }
+        if (kind != MASTER) {
+            ContractPaymentData data = contract.getContractPaymentData();
+            out.putInt(data.getPremium());
+            out.putByte(data.getPremiumPaymentFrequency().ordinal());
+            out.putLong(data.getNextPaymentDate());
+            out.putLong(data.getNextPaymentNanoOfDay());
+            out.putInt(data.getOutstandingBalance());
+        }
+
+        switch (kind) {
+            case SINGLE -> {
+                Vehicle vehicle = ((SingleVehicleContract) contract).getInsuredVehicle();
+                out.putString(vehicle.getLicensePlate());
+                out.putInt(vehicle.getOriginalValue());
+            }
+            case TRAVEL -> {
+                Set<Person> insured = ((TravelContract) contract).getInsuredPersons();
+                out.putInt(insured.size());
+                for (Person person : insured) {
+                    out.putInt(personIndex.get(person));
+                }
+            }
+            default -> {
+                Set<SingleVehicleContract> children = ((MasterVehicleContract) contract).getChildContracts();
+                out.putInt(children.size());
+                for (SingleVehicleContract child : children) {
+                    out.putInt(contractIndex.get(child));
+                }
+            }
+        }
+    }
+
+    public static InsuranceCompany read(Path file) throws IOException {
+        return read(file, new PaymentDataStore());
+    }
+
+    //obnovi poistovnu zo snimku; platobne udaje budu v paymentStore (napr. mimo haldy)
+    public static InsuranceCompany read(Path file, PaymentDataStore paymentStore) throws IOException {
+        if (file == null || paymentStore == null) {
+            throw new IllegalArgumentException("Žiadny parameter nesmie byť null.");
+        }
+        try (MappedReader in = new MappedReader(file)) {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Súbor nie je snímka poisťovne.");
+            }
+            if (in.getInt() != VERSION) {
+                throw new IOException("Nepodporovaná verzia snímky.");
+            }
+            InsuranceCompany company = new InsuranceCompany(in.getTime(), paymentStore);
+
+            Person[] persons = new Person[in.getInt()];
+            for (int i = 0; i < persons.length; i++) {
+                Person person = new Person(in.getString());
+                int paidOut = in.getInt();
+                if (paidOut != 0) {
+                    person.payout(paidOut);
+                }
+                if (in.getByte() != 0) {
+                    person = company.getPersons().intern(person);
+                }
+                persons[i] = person;
+            }
+
+            AbstractContract[] contracts = new AbstractContract[in.getInt()];
+            boolean[] active = new boolean[contracts.length];
+            for (int i = 0; i < contracts.length; i++) {
+                active[i] = readContract(in, company, paymentStore, persons, contracts, i);
+            }
+
+            //zanik az ked su zmluvy na svojich miestach - oznami sa master zmluvam aj registru poistovne
+            for (int i = 0; i < contracts.length; i++) {
+                if (active[i]) {
+                    continue;
+                }
+                if (contracts[i] instanceof MasterVehicleContract master) {
+                    master.setInactiveItself(); //flotila ma stav zapisany pri dcerskych zmluvach
+                } else if (contracts[i].isActive()) {
+                    contracts[i].setInactive();
+                }
+            }
+
+            PaymentLedger ledger = company.getHandler().getPaymentLedger();
+            int payments = in.getInt();
+            for (int i = 0; i < payments; i++) {
+                AbstractContract contract = contracts[in.getInt()];
+                ledger.record(contract, in.getTime(), in.getInt());
+            }
+            return company;
+        }
+    }
+
+    //vrati, ci bola zmluva aktivna
+    private static boolean readContract(MappedReader in, InsuranceCompany company, PaymentDataStore paymentStore,
+                                        Person[] persons, AbstractContract[] contracts, int index) {
+        byte kind = in.getByte();
+        String number = in.getString();
+        Person policyHolder = persons[in.getInt()];
+        boolean topLevel = in.getByte() != 0;
+        boolean active = in.getByte() != 0;
+        int coverageAmount = in.getInt();
+
+        Person beneficiary = null;
+        if (kind != TRAVEL) {
+            int beneficiaryIndex = in.getInt();
+            beneficiary = beneficiaryIndex < 0 ? null : persons[beneficiaryIndex];
+        }
+        ContractPaymentData data = null;
+        if (kind != MASTER) {
+            int premium = in.getInt();
+            PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[in.getByte()];
+            long date = in.getLong();
+            long nano = in.getLong();
+            int balance = in.getInt();
+            data = paymentStore.add(premium, frequency, unpackDate(date, nano), balance);
+        }
+
+        AbstractContract contract;
+        switch (kind) {
+            case SINGLE -> contract = new SingleVehicleContract(number, company, beneficiary, policyHolder, data,
+                    coverageAmount, new Vehicle(in.getString(), in.getInt()));
+            case TRAVEL -> {
+                Set<Person> insured = new LinkedHashSet<>();
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    insured.add(persons[in.getInt()]);
+                }
+                contract = new TravelContract(number, company, policyHolder, data, coverageAmount, insured);
+            }
+            case MASTER -> {
+                MasterVehicleContract master = new MasterVehicleContract(number, company, beneficiary, policyHolder);
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    master.addChildContract((SingleVehicleContract) contracts[in.getInt()]);
+                }
+                contract = master;
+            }
+            default -> throw new IllegalStateException("Neznámy druh zmluvy " + kind + ".");
+        }
+
+        contracts[index] = contract;
+        if (topLevel) {
+            company.getContracts().add(contract); //zaradi aj dcerske zmluvy master zmluvy
+            policyHolder.addContract(contract);
+        }
+        return active;
+    }
+
+    private static LocalDateTime unpackDate(long date, long nanoOfDay) {
+        int epochMonth = (int) (date >> 5);
+        int day = (int) (date & 31);
+        return LocalDateTime.of(LocalDate.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1, day),
+                LocalTime.ofNanoOfDay(nanoOfDay));
+    }
+
+    //zapis cez mapovane okna suboru - ked sa okno zaplni, namapuje sa dalsie za nim
+    private static final class MappedWriter implements AutoCloseable {
+        private static final int WINDOW = 64 << 20;
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        MappedWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.windowStart = 0;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW);
+        }
+
+        long position() {
+            return windowStart + buffer.position();
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                try {
+                    long position = position();
+                    buffer.force();
+                    windowStart = position;
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(WINDOW, bytes));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putTime(LocalDateTime time) {
+            putLong(time.toEpochSecond(ZoneOffset.UTC));
+            putInt(time.getNano());
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        //prepise int na uz zapisanej pozicii (pocet platieb, ktory je znamy az na konci)
+        void putIntAt(long position, int value) throws IOException {
+            if (position >= windowStart && position + 4 <= windowStart + buffer.capacity()) {
+                buffer.putInt((int) (position - windowStart), value);
+            } else {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, 4);
+                window.putInt(0, value);
+                window.force();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            long length = position();
+            buffer.force();
+            buffer = null;
+            channel.truncate(length); //zvysok posledneho okna
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    //citanie cez mapovane okna suboru (okno ma najviac 1 GB, MappedByteBuffer je obmedzeny na int)
+    private static final class MappedReader implements AutoCloseable {
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        MappedReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                long position = windowStart + buffer.position();
+                if (size - position < bytes) {
+                    throw new IllegalStateException("Snímka je neúplná.");
+                }
+                try {
+                    map(position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        byte getByte() {
+            ensure(1);
+            return buffer.get();
+        }
+
+        int getInt() {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        long getLong() {
+            ensure(8);
+            return buffer.getLong();
+        }
+
+        LocalDateTime getTime() {
+            long seconds = getLong();
+            return LocalDateTime.ofEpochSecond(seconds, getInt(), ZoneOffset.UTC);
+        }
+
+        String getString() {
+            int length = getInt();
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            channel.close();
+        }
+    }
+}
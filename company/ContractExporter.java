@@ -0,0 +1,346 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.AbstractVehicleContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import payment.ContractPaymentData;
+import payment.PaymentCursor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.locks.Lock;
+
+//export zmlov (so stavom a nedoplatkom) a historie platieb do CSV alebo kompaktneho binarneho formatu
+//zapisuje sa rovno do bajtoveho buffra, ktory sa pri zaplneni vyprazdni do kanala - bez riadkov v pamati
+//
+//zmluvy: pod citacim zamkom struktury sa skopiruju len referencie na zmluvy poistovne (jedno pole), dalej sa
+//zmluvy vypisuju bez neho; platobne udaje kazdej zmluvy sa citaju pod jej zamkom, takze riadok je konzistentny,
+//ale export ako celok nie je snimkou jedneho okamihu (na to je CompanySnapshot)
+//platby: cez PaymentCursor, ktory drzi zamok indexu platieb len pocas kopirovania stranky
+//
+//CSV zmlov ma prvych 10 stlpcov vo formate ContractImporter, za nimi active,coverage,outstandingBalance,nextPayment
+//binarne zaznamy: retazec = dlzka (short) + UTF-8, cas = sekundy od epochy (long) + nanosekundy (int)
+public class ContractExporter {
+    public static final String CONTRACTS_HEADER = ContractImporter.CSV_HEADER
+            + ",active,coverage,outstandingBalance,nextPayment";
+    public static final String PAYMENTS_HEADER = "number,time,amount";
+
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    private static final int BUFFER = 1 << 16;
+    private static final int PAGE = 4096; //zmluv na jedno drzanie zamku struktury
+    private static final byte VEHICLE = 1;
+    private static final byte MASTER = 2;
+    private static final byte TRAVEL = 3;
+
+    private final InsuranceCompany company;
+    private final Format format;
+
+    //Konštruktor:
+    public ContractExporter(InsuranceCompany company, Format format) {
+        if (company == null || format == null) {
+            throw new IllegalArgumentException("Žiadny parameter nesmie byť null.");
+        }
+        this.company = company;
+        this.format = format;
+    }
+
+    //vrati pocet zapisanych zmlov (aj dcerskych)
+    public long exportContracts(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Kanál channel nesmie byť null.");
+        }
+        Output out = new Output(channel);
+        if (format == Format.CSV) {
+            out.ascii(CONTRACTS_HEADER).newLine();
+        }
+        //zmluvy sa beru po strankach, zamok struktury sa drzi len pocas plnenia jednej stranky;
+        //zmluvy pridane pocas exportu v nom mozu, ale nemusia byt
+        ContractRegistry.Cursor cursor = company.contractCursor();
+        AbstractContract[] page = new AbstractContract[PAGE];
+        long rows = 0;
+        while (true) {
+            int count;
+            company.getLocks().readLock().lock();
+            try {
+                count = cursor.next(page);
+            } finally {
+                company.getLocks().readLock().unlock();
+            }
+            if (count == 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                AbstractContract contract = page[i];
+                page[i] = null;
+                writeContract(out, contract, null);
+                rows++;
+                if (contract instanceof MasterVehicleContract master) {
+                    for (SingleVehicleContract child : children(master)) {
+                        writeContract(out, child, master);
+                        rows++;
+                    }
+                }
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    //platby z obdobia [from, to) v poradi podla casu, vrati ich pocet
+    public long exportPayments(WritableByteChannel channel, LocalDateTime from, LocalDateTime to) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Kanál channel nesmie byť null.");
+        }
+        PaymentCursor cursor = company.getHandler().getPaymentLedger().cursor(from, to);
+        Output out = new Output(channel);
+        if (format == Format.CSV) {
+            out.ascii(PAYMENTS_HEADER).newLine();
+        }
+        long rows = 0;
+        while (cursor.next()) {
+            if (format == Format.CSV) {
+                out.field(cursor.getContract().getContractNumber()).comma()
+                        .ascii(cursor.getTime().toString()).comma()
+                        .number(cursor.getAmount()).newLine();
+            } else {
+                out.string(cursor.getContract().getContractNumber())
+                        .putLong(cursor.getEpochSecond()).putInt(cursor.getNano()).putInt(cursor.getAmount());
+            }
+            rows++;
+        }
+        out.flush();
+        return rows;
+    }
+
+    //flotila sa meni len pod zapisovym zamkom struktury, kopia je kratka
+    private SingleVehicleContract[] children(MasterVehicleContract master) {
+        company.getLocks().readLock().lock();
+        try {
+            return master.getChildContracts().toArray(new SingleVehicleContract[0]);
+        } finally {
+            company.getLocks().readLock().unlock();
+        }
+    }
+
+    private void writeContract(Output out, AbstractContract contract, MasterVehicleContract master) throws IOException {
+        //platobne udaje a stav naraz pod zamkom zmluvy
+        int premium = 0;
+        String frequency = "";
+        int balance = 0;
+        long nextSecond = 0;
+        int nextNano = 0;
+        boolean active;
+        Lock lock = company.getLocks().lockFor(contract);
+        lock.lock();
+        try {
+            active = contract.isActive();
+            ContractPaymentData data = contract.getContractPaymentData();
+            if (data != null) {
+                premium = data.getPremium();
+                frequency = data.getPremiumPaymentFrequency().name();
+                balance = data.getOutstandingBalance();
+                LocalDateTime next = data.getNextPaymentTime();
+                nextSecond = next.toEpochSecond(ZoneOffset.UTC);
+                nextNano = next.getNano();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean hasPaymentData = contract.getContractPaymentData() != null;
+        Person beneficiary = contract instanceof AbstractVehicleContract vehicleContract
+                ? vehicleContract.getBeneficiary() : null;
+        if (format == Format.CSV) {
+            String type = contract instanceof MasterVehicleContract ? "MASTER"
+                    : contract instanceof TravelContract ? "TRAVEL" : "VEHICLE";
+            out.ascii(type).comma().field(contract.getContractNumber()).comma()
+                    .field(contract.getPolicyHolder().getId()).comma()
+                    .field(beneficiary == null ? "" : beneficiary.getId()).comma();
+            if (hasPaymentData) {
+                out.number(premium);
+            }
+            out.comma().ascii(frequency).comma();
+            if (contract instanceof SingleVehicleContract single) {
+                out.field(single.getInsuredVehicle().getLicensePlate()).comma()
+                        .number(single.getInsuredVehicle().getOriginalValue()).comma();
+            } else {
+                out.comma().comma();
+            }
+            if (master != null) {
+                out.field(master.getContractNumber());
+            }
+            out.comma();
+            if (contract instanceof TravelContract travel) {
+                boolean first = true;
+                for (Person person : travel.getInsuredPersons()) {
+                    if (!first) {
+                        out.ascii(";");
+                    }
+                    out.field(person.getId());
+                    first = false;
+                }
+            }
+            out.comma().ascii(active ? "true" : "false").comma().number(contract.getCoverageAmount()).comma();
+            if (hasPaymentData) {
+                out.number(balance).comma()
+                        .ascii(LocalDateTime.ofEpochSecond(nextSecond, nextNano, ZoneOffset.UTC).toString());
+            } else {
+                out.comma();
+            }
+            out.newLine();
+            return;
+        }
+
+        byte type = contract instanceof MasterVehicleContract ? MASTER
+                : contract instanceof TravelContract ? TRAVEL : VEHICLE;
+        out.putByte(type).string(contract.getContractNumber()).string(contract.getPolicyHolder().getId())
+                .string(beneficiary == null ? "" : beneficiary.getId())
+                .putByte(active ? 1 : 0).putInt(contract.getCoverageAmount());
+        if (hasPaymentData) {
+            out.putInt(premium).putByte(contract.getContractPaymentData().getPremiumPaymentFrequency().ordinal())
+                    .putInt(balance).putLong(nextSecond).putInt(nextNano);
+        }
+        if (contract instanceof SingleVehicleContract single) {
+            out.string(single.getInsuredVehicle().getLicensePlate())
+                    .putInt(single.getInsuredVehicle().getOriginalValue())
+                    .string(master == null ? "" : master.getContractNumber());
+        } else if (contract instanceof TravelContract travel) {
+            out.putInt(travel.getInsuredPersons().size());
+            for (Person person : travel.getInsuredPersons()) {
+                out.string(person.getId());
+            }
+        }
+    }
+
+    //bajtovy buffer nad kanalom
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        Output putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+            return this;
+        }
+
+        Output putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        Output putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            return this;
+        }
+
+        Output string(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Reťazec je príliš dlhý.");
+            }
+            ensure(2);
+            buffer.putShort((short) bytes.length);
+            return raw(bytes);
+        }
+
+        private Output raw(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                return this;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+            return this;
+        }
+
+        //nazvy enumov, cisla a casy su len ASCII, netreba ich kodovat; id a EC nie (Person a Vehicle beru
+        //aj ine cifry a velke pismena ako ASCII), tie idu cez field
+        Output ascii(String value) throws IOException {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return this;
+        }
+
+        //lubovolny text (cislo zmluvy, id, EC) v UTF-8 - v uvodzovkach, ak obsahuje ciarku, uvodzovky
+        //alebo koniec riadku; cisty ASCII text (takmer vzdy) sa zapise rovno bez kodovania
+        Output field(String value) throws IOException {
+            boolean quote = false;
+            boolean plain = true;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+                plain &= c < 0x80;
+            }
+            if (!quote) {
+                return plain && value.length() <= BUFFER ? ascii(value) : raw(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return raw(('"' + value.replace("\"", "\"\"") + '"').getBytes(StandardCharsets.UTF_8));
+        }
+
+        Output number(int value) throws IOException {
+            ensure(11);
+            long remaining = value; //aj Integer.MIN_VALUE
+            if (remaining < 0) {
+                buffer.put((byte) '-');
+                remaining = -remaining;
+            }
+            int start = buffer.position();
+            do {
+                buffer.put((byte) ('0' + remaining % 10));
+                remaining /= 10;
+            } while (remaining > 0);
+            for (int low = start, high = buffer.position() - 1; low < high; low++, high--) {
+                byte swap = buffer.get(low);
+                buffer.put(low, buffer.get(high));
+                buffer.put(high, swap);
+            }
+            return this;
+        }
+
+        Output comma() throws IOException {
+            return putByte(',');
+        }
+
+        Output newLine() throws IOException {
+            return putByte('\n');
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+//hromadny import zmlov z CSV - subor sa cita po davkach riadkov cez FileChannel, takze pamat nezavisi od velkosti suboru
+//davka sa najprv paralelne rozparsuje a overia sa v nej id osob a vozidla, potom sa v poradi riadkov zapise
+//do poistovne (kym sa zapisuje, uz sa overuje dalsia davka); odmietnute riadky idu s dovodom do vedlajsieho suboru
+//
+//riadky: type,number,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,master,insuredPersons
+//  VEHICLE - zmluva na vozidlo; ak je vyplneny master, zmluva sa presunie do tejto master zmluvy
+//  MASTER  - master zmluva (premium, frequency ani vozidlo nema)
+//  TRAVEL  - cestovna zmluva, insuredPersons su id oddelene ;
+//dalsie stlpce (napr. stav zmluvy z ContractExporter) sa ignoruju, prazdny riadok a hlavicka sa preskocia
+//pole v uvodzovkach (RFC 4180) moze obsahovat ciarku, koniec riadku aj zdvojene uvodzovky - tak ako ho zapise
+//ContractExporter; cislo riadku v odmietnutych je poradie zaznamu, zaznam cez viac riadkov ma jedno cislo
+public class ContractImporter {
+    public static final String CSV_HEADER =
+            "type,number,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,master,insuredPersons";
+
+    private static final int BATCH = 4096;
+    private static final int COLUMNS = 10;
+
+    private final InsuranceCompany company;
+    private final ForkJoinPool pool;
+
+    //Konštruktor:
+    public ContractImporter(InsuranceCompany company) {
+        this(company, ForkJoinPool.commonPool());
+    }
+
+    public ContractImporter(InsuranceCompany company, ForkJoinPool pool) {
+        if (company == null || pool == null) {
+            throw new IllegalArgumentException("Žiadny parameter nesmie byť null.");
+        }
+        this.company = company;
+        this.pool = pool;
+    }
+
+    //rejectFile moze byt null - odmietnute riadky sa potom len spocitaju
+    //odmietnuty zaznam je v nom jeden riadok: cislo,"dovod","povodny zaznam" - dovod aj zaznam su v uvodzovkach,
+    //takze aj zaznam s koncami riadkov v uvodzovkach zostane jednym zaznamom CSV
+    public ImportSummary importFile(Path file, Path rejectFile) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Súbor file nesmie byť null.");
+        }
+        ImportSummary summary = new ImportSummary(0, 0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedWriter rejects = rejectFile == null ? null : Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8)) {
+            LineReader reader = new LineReader(channel);
+            CompletableFuture<Row[]> pending = null;
+            while (true) {
+                List<String> lines = new ArrayList<>(BATCH);
+                long firstLine = reader.readBatch(lines, BATCH);
+                CompletableFuture<Row[]> parsed = lines.isEmpty() ? null
+                        : CompletableFuture.supplyAsync(() -> parse(lines, firstLine), pool);
+                if (pending != null) {
+                    summary = summary.combine(commit(join(pending), rejects));
+                }
+                if (parsed == null) {
+                    break;
+                }
+                pending = parsed;
+            }
+        }
+        return summary;
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Row[] join(CompletableFuture<Row[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Row[] parse(List<String> lines, long firstLine) {
+        return IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> Row.parse(lines.get(i), firstLine + i))
+                .toArray(Row[]::new);
+    }
+
+    //zapise davku pod jednym zamkom struktury poistovne
+    private ImportSummary commit(Row[] rows, BufferedWriter rejects) throws IOException {
+        long[] counts = new long[2];
+        company.runBatch(() -> {
+            for (Row row : rows) {
+                if (row == null) {
+                    continue;
+                }
+                if (row.error == null) {
+                    try {
+                        row.insure(company);
+                        counts[0]++;
+                        continue;
+                    } catch (IllegalArgumentException | InvalidContractException e) {
+                        row.error = e.getMessage();
+                    }
+                }
+                counts[1]++;
+            }
+        });
+        if (rejects != null && counts[1] > 0) {
+            for (Row row : rows) {
+                if (row != null && row.error != null) {
+                    rejects.write(row.lineNumber + "," + quote(row.error) + "," + quote(row.line));
+                    rejects.newLine();
+                }
+            }
+        }
+        return new ImportSummary(counts[0], counts[1]);
+    }
+
+    //jeden riadok suboru; ak sa neda rozparsovat, ma vyplneny error
+    private static final class Row {
+        private final long lineNumber;
+        private final String line;
+        private String error;
+        private String type;
+        private String number;
+        private Person policyHolder;
+        private Person beneficiary;
+        private int premium;
+        private PremiumPaymentFrequency frequency;
+        private Vehicle vehicle;
+        private String master;
+        private Set<Person> insuredPersons;
+
+        private Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+
+        //null pre prazdny riadok a hlavicku
+        static Row parse(String line, long lineNumber) {
+            if (line.isEmpty() || line.startsWith(CSV_HEADER)) {
+                return null;
+            }
+            Row row = new Row(lineNumber, line);
+            try {
+                row.parseColumns(split(line));
+            } catch (IllegalArgumentException e) {
+                row.error = e.getMessage();
+            }
+            return row;
+        }
+
+        //bez uvodzoviek (takmer vsetky riadky) staci rozdelit podla ciarok
+        static String[] split(String line) {
+            if (line.indexOf('"') < 0) {
+                return line.split(",", -1);
+            }
+            List<String> columns = new ArrayList<>(COLUMNS + 4);
+            StringBuilder field = new StringBuilder();
+            int length = line.length();
+            int i = 0;
+            while (true) {
+                if (i < length && line.charAt(i) == '"') {
+                    i++;
+                    while (true) {
+                        if (i >= length) {
+                            throw new IllegalArgumentException("Neukončené úvodzovky.");
+                        }
+                        char c = line.charAt(i++);
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i < length && line.charAt(i) == '"') {
+                            field.append('"'); //zdvojene uvodzovky su jedny uvodzovky v texte
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    if (i < length && line.charAt(i) != ',') {
+                        throw new IllegalArgumentException("Za úvodzovkami musí nasledovať čiarka.");
+                    }
+                } else {
+                    int end = line.indexOf(',', i);
+                    end = end < 0 ? length : end;
+                    field.append(line, i, end);
+                    i = end;
+                }
+                columns.add(field.toString());
+                field.setLength(0);
+                if (i >= length) {
+                    return columns.toArray(new String[0]);
+                }
+                i++; //ciarka
+            }
+        }
+
+        private void parseColumns(String[] columns) {
+            if (columns.length < COLUMNS) {
+                throw new IllegalArgumentException("Riadok musí mať aspoň " + COLUMNS + " stĺpcov.");
+            }
+            type = columns[0];
+            number = columns[1];
+            if (number.isEmpty()) {
+                throw new IllegalArgumentException("Chýba číslo zmluvy.");
+            }
+            policyHolder = person(columns[2]);
+            if (policyHolder == null) {
+                throw new IllegalArgumentException("Chýba poistník.");
+            }
+            switch (type) {
+                case "VEHICLE" -> {
+                    beneficiary = person(columns[3]);
+                    premium = premium(columns[4]);
+                    frequency = frequency(columns[5]);
+                    vehicle = new Vehicle(columns[6], integer(columns[7], "Neplatná hodnota vozidla."));
+                    master = columns[8].isEmpty() ? null : columns[8];
+                }
+                case "MASTER" -> beneficiary = person(columns[3]);
+                case "TRAVEL" -> {
+                    premium = premium(columns[4]);
+                    frequency = frequency(columns[5]);
+                    insuredPersons = new LinkedHashSet<>();
+                    for (String id : columns[9].split(";")) {
+                        insuredPersons.add(new Person(id));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Neznámy druh zmluvy " + type + ".");
+            }
+        }
+
+        void insure(InsuranceCompany company) {
+            switch (type) {
+                case "VEHICLE" -> {
+                    MasterVehicleContract masterContract = null;
+                    if (master != null) {
+                        //overim pred poistenim, aby po neuspesnom presune neostala samostatna zmluva
+                        AbstractContract found = company.findContract(master);
+                        if (!(found instanceof MasterVehicleContract)) {
+                            throw new InvalidContractException("Master zmluva " + master + " neexistuje.");
+                        }
+                        masterContract = (MasterVehicleContract) found;
+                        if (!masterContract.getPolicyHolder().getId().equals(policyHolder.getId())) {
+                            throw new InvalidContractException("Zmluvy musia mať rovnakého poistníka.");
+                        }
+                        if (!masterContract.isActive()) {
+                            throw new InvalidContractException("Obe zmluvy musia byť aktívne.");
+                        }
+                    }
+                    SingleVehicleContract contract = company.insureVehicle(number, beneficiary, policyHolder, premium, frequency, vehicle);
+                    if (masterContract != null) {
+                        company.moveSingleVehicleContractToMasterVehicleContract(masterContract, contract);
+                    }
+                }
+                case "MASTER" -> company.createMasterVehicleContract(number, beneficiary, policyHolder);
+                default -> company.insurePersons(number, policyHolder, premium, frequency, insuredPersons);
+            }
+        }
+
+        private static Person person(String id) {
+            return id.isEmpty() ? null : new Person(id);
+        }
+
+        private static int premium(String value) {
+            return integer(value, "Neplatné poistné.");
+        }
+
+        private static int integer(String value, String message) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+
+        private static PremiumPaymentFrequency frequency(String value) {
+            try {
+                return PremiumPaymentFrequency.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Neznáma frekvencia platby " + value + ".");
+            }
+        }
+    }
+
+    //zaznamy suboru cez pevny buffer; zaznam konci \n alebo \r\n mimo uvodzoviek
+    //uvodzovky plati rovnako ako v split: pole v uvodzovkach zacne len uvodzovka na zaciatku pola, uvodzovka
+    //inde v poli je obycajny znak - jedna zatulana uvodzovka tak nespoji zvysok suboru do jedneho zaznamu
+    //(uvodzovky aj ciarka su v UTF-8 vzdy jeden bajt)
+    private static final class LineReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private byte[] line;
+        private int length;
+        private long lineNumber;
+        private boolean fieldStart = true; //dalsi bajt je prvy bajt pola
+        private boolean quoted; //vnutri pola v uvodzovkach
+        private boolean closing; //predosly bajt ukoncil uvodzovky, alebo je prva z dvojice ""
+        private boolean eof;
+
+        LineReader(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(1 << 16);
+            this.buffer.flip();
+            this.line = new byte[256];
+        }
+
+        //nacita najviac max riadkov a vrati cislo prveho z nich (od 1)
+        long readBatch(List<String> lines, int max) throws IOException {
+            long first = lineNumber + 1;
+            String next;
+            while (lines.size() < max && (next = readLine()) != null) {
+                lines.add(next);
+            }
+            return first;
+        }
+
+        private String readLine() throws IOException {
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (quoted) {
+                        if (b == '"') {
+                            quoted = false;
+                            closing = true;
+                        }
+                    } else if (closing && b == '"') {
+                        quoted = true; //zdvojene uvodzovky - pole pokracuje
+                        closing = false;
+                    } else {
+                        closing = false;
+                        if (b == '\n') {
+                            return finishLine();
+                        }
+                        quoted = b == '"' && fieldStart;
+                        fieldStart = b == ',';
+                    }
+                    if (length == line.length) {
+                        byte[] grown = new byte[line.length * 2];
+                        System.arraycopy(line, 0, grown, 0, length);
+                        line = grown;
+                    }
+                    line[length++] = b;
+                }
+                if (eof) {
+                    return length > 0 ? finishLine() : null;
+                }
+                buffer.clear();
+                eof = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+        }
+
+        private String finishLine() {
+            int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+            String result = new String(line, 0, end, StandardCharsets.UTF_8);
+            length = 0;
+            fieldStart = true;
+            quoted = false;
+            closing = false;
+            lineNumber++;
+            return result;
+        }
+    }
+}
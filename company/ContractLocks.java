@@ -0,0 +1,91 @@
+package company;
+
+import contracts.AbstractContract;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//zamky poistovne pre sucasnu pracu z viacerych vlakien
+//
+//- platobne udaje zmluvy (nedoplatok, termin splatnosti), historiu platieb zmluvy a jej stav (aktivna)
+//  meni len vlakno, ktore drzi zamok zmluvy; zmluvy su rozdelene do pruhov (stripe) podla identity,
+//  takze platby, poistne udalosti a zauctovanie na roznych zmluvach idu naraz
+//- struktura poistovne (mnozina zmlov, indexy, presuny do master zmluvy) sa meni len pod zapisovym
+//  zamkom; operacie nad celou flotilou alebo celym portfoliom drzia citaci zamok
+//- presun zmluvy do master zmluvy drzi zapisovy zamok aj zamky oboch zmluv, takze je atomicky voci
+//  vsetkym ostatnym operaciam: platba na master zmluvu vidi flotilu bud celu pred presunom, alebo celu po nom
+//- platba na master zmluvu zamkne master zmluvu a vsetky dcerske zmluvy naraz (vzdy v poradi pruhov,
+//  aby nevznikol deadlock), rozdelenie platby medzi dcerske zmluvy je teda atomicke
+//- zauctovanie celeho portfolia je atomicke len po jednotlivych zmluvach, nie ako celok; s pripojenym logom
+//  drzi zapisovy zamok, aby sa neprekrylo s platbou master zmluvy a poistnou udalostou (tie drzia citaci)
+public class ContractLocks {
+    private static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] stripes;
+    private final ReentrantReadWriteLock structureLock;
+
+    //Konštruktor:
+    public ContractLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ContractLocks(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Počet pruhov musí byť kladná mocnina dvojky.");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.structureLock = new ReentrantReadWriteLock();
+    }
+
+    public Lock lockFor(AbstractContract contract) {
+        return stripes[stripeIndex(contract)];
+    }
+
+    //zamkne vsetky zmluvy naraz, vrati zamky v poradi, v akom boli zamknute
+    public List<Lock> lockAll(Collection<? extends AbstractContract> contracts) {
+        int[] indexes = contracts.stream().mapToInt(this::stripeIndex).distinct().toArray();
+        Arrays.sort(indexes); //vzdy rovnake poradie = ziadny deadlock
+        List<Lock> locked = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    //zamkne vsetky pruhy - ziadna zmluva sa potom nemeni (napr. snimka celej poistovne)
+    public List<Lock> lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        return List.of(stripes);
+    }
+
+    public void unlockAll(List<Lock> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).unlock();
+        }
+    }
+
+    public Lock readLock() {
+        return structureLock.readLock();
+    }
+
+    public Lock writeLock() {
+        return structureLock.writeLock();
+    }
+
+    private int stripeIndex(AbstractContract contract) {
+        int h = System.identityHashCode(contract);
+        h ^= (h >>> 16); //rozhodime aj vyssie bity
+        return h & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,317 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//mnozina zmlov poistovne, ktora si popri tom drzi index cislo zmluvy -> zmluva,
+//aby kontrola unikatnosti a hladanie zmluvy nemuseli prechadzat vsetky zmluvy
+//kazdu zaregistrovanu zmluvu s platobnymi udajmi zaradi aj do planovaca zauctovania
+//zmluvy su navyse rozdelene na aktivne a neaktivne, aby zauctovanie a vykazy nechodili cez zaniknute zmluvy
+//a aktivne zmluvy na vozidla su zaradene podla EC vozidla (aj ked su v master zmluve)
+//
+//zmluvy su v poradi pridania vo vlastnom zozname (namiesto LinkedHashSet), aby sa dali prechadzat po strankach
+//s uvolnenim zamku struktury medzi nimi (Cursor): odobraty uzol si necha odkaz na nasledujuci, takze kurzor
+//stojaci na odobratej zmluve pokracuje dalej a neminie ziadnu zmluvu, ktora v poistovni zostala
+class ContractRegistry extends AbstractSet<AbstractContract> {
+    private final Map<AbstractContract, Node> contracts;
+    private final Node head; //zarazka pred prvou zmluvou
+    private Node tail;
+    //zmluvy zanikaju aj mimo zamku struktury (poistna udalost), preto su tieto mnoziny konkurentne
+    private final Set<AbstractContract> activeContracts;
+    private final Set<AbstractContract> inactiveContracts;
+    //byNumber a masters su obycajne mapy - meni ich len drzitel zapisoveho zamku struktury
+    //a citaju sa len pod zamkom struktury (findContract, zauctovanie cez planovac)
+    private final Map<String, AbstractContract> byNumber;
+    //dcerska zmluva -> jej master zmluvy (presun nekontroluje, ci uz zmluva nie je v inej master zmluve)
+    private final Map<SingleVehicleContract, List<MasterVehicleContract>> masters;
+    private final PlateIndex byPlate;
+    private final BillingScheduler scheduler;
+
+    //Konštruktor:
+    ContractRegistry(BillingScheduler scheduler) {
+        this.contracts = new HashMap<>();
+        this.head = new Node(null);
+        this.head.prev = this.head;
+        this.tail = this.head;
+        this.activeContracts = ConcurrentHashMap.newKeySet();
+        this.inactiveContracts = ConcurrentHashMap.newKeySet();
+        this.byNumber = new HashMap<>();
+        this.masters = new HashMap<>();
+        this.byPlate = new PlateIndex();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public boolean add(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Zmluva contract nesmie byť null.");
+        }
+        if (!link(contract)) {
+            return false;
+        }
+        fileByState(contract);
+        index(contract);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!unlink(o)) {
+            return false;
+        }
+        unfile((AbstractContract) o);
+        unindex((AbstractContract) o);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return contracts.containsKey(o);
+    }
+
+    @Override
+    public Iterator<AbstractContract> iterator() {
+        Cursor cursor = new Cursor();
+        return new Iterator<>() {
+            private AbstractContract last;
+
+            @Override
+            public boolean hasNext() {
+                return cursor.peek() != null;
+            }
+
+            @Override
+            public AbstractContract next() {
+                Node next = cursor.peek();
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                cursor.position = next;
+                last = next.contract;
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ContractRegistry.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return contracts.size();
+    }
+
+    //zmluva sa presuva do master zmluvy - z hlavnej mnoziny odide, ale cislo ostava obsadene
+    void detach(AbstractContract contract) {
+        if (unlink(contract)) {
+            unfile(contract);
+        }
+    }
+
+    //kurzor cez zmluvy v poradi pridania; next sa vola pod zamkom struktury, medzi volaniami sa zamok moze uvolnit
+    //zmluvy pridane pocas prechadzania kurzor moze, ale nemusi uvidiet
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private boolean link(AbstractContract contract) {
+        Node node = new Node(contract);
+        if (contracts.putIfAbsent(contract, node) != null) {
+            return false;
+        }
+        node.prev = tail;
+        tail.next = node;
+        tail = node;
+        return true;
+    }
+
+    //uzol vypadne zo zoznamu, ale next si necha - kurzor, ktory na nom stoji, tak pokracuje za nim
+    private boolean unlink(Object contract) {
+        Node node = contracts.remove(contract);
+        if (node == null) {
+            return false;
+        }
+        node.prev.next = node.next;
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null; //odobraty
+        return true;
+    }
+
+    private static final class Node {
+        private final AbstractContract contract;
+        private Node prev; //null az po odobrati
+        private Node next;
+
+        private Node(AbstractContract contract) {
+            this.contract = contract;
+        }
+    }
+
+    final class Cursor {
+        private Node position = head;
+
+        //najblizsi uzol za poziciou, ktory je este v zozname
+        private Node peek() {
+            Node node = position.next;
+            while (node != null && node.prev == null) {
+                node = node.next;
+            }
+            return node;
+        }
+
+        //naplni page dalsimi zmluvami a vrati ich pocet, 0 na konci
+        int next(AbstractContract[] page) {
+            int count = 0;
+            Node node = position;
+            while (count < page.length && node.next != null) {
+                node = node.next;
+                if (node.prev != null) {
+                    page[count++] = node.contract;
+                }
+            }
+            position = node;
+            return count;
+        }
+    }
+
+    Set<AbstractContract> activeContracts() {
+        return activeContracts;
+    }
+
+    Set<AbstractContract> inactiveContracts() {
+        return inactiveContracts;
+    }
+
+    //zmluva zmenila stav (zanikla, alebo master zmluva zmenila flotilu) - preradi ju podla aktualneho stavu
+    void refreshState(AbstractContract contract) {
+        synchronized (contract) { //aby dve sucasne zmeny stavu neskoncili v opacnej mnozine
+            if (activeContracts.contains(contract) || inactiveContracts.contains(contract)) {
+                fileByState(contract);
+            }
+        }
+        if (contract instanceof SingleVehicleContract single && !single.isActive()) {
+            byPlate.remove(single); //zaniknuta zmluva uz vozidlo nepoistuje
+        }
+    }
+
+    //najprv pridat, potom odobrat - zmluva tak nikdy nechyba v oboch mnozinach naraz
+    private void fileByState(AbstractContract contract) {
+        if (contract.isActive()) {
+            activeContracts.add(contract);
+            inactiveContracts.remove(contract);
+        } else {
+            inactiveContracts.add(contract);
+            activeContracts.remove(contract);
+        }
+    }
+
+    private void unfile(AbstractContract contract) {
+        activeContracts.remove(contract);
+        inactiveContracts.remove(contract);
+    }
+
+    //zaregistruje cislo zmluvy (aj dcerske zmluvy ak ide o master)
+    private void index(AbstractContract contract) {
+        byNumber.put(contract.getContractNumber(), contract);
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                indexChild(master, child);
+            }
+        } else {
+            if (contract instanceof SingleVehicleContract single) {
+                byPlate.add(single);
+            }
+            scheduler.schedule(contract);
+        }
+    }
+
+    //zaregistruje zmluvu, ktora bola presunuta do master zmluvy
+    void indexChild(MasterVehicleContract master, SingleVehicleContract child) {
+        byNumber.put(child.getContractNumber(), child);
+        List<MasterVehicleContract> childMasters = masters.computeIfAbsent(child, k -> new ArrayList<>(1));
+        if (!childMasters.contains(master)) {
+            childMasters.add(master);
+        }
+        byPlate.add(child);
+        scheduler.schedule(child);
+    }
+
+    private void unindex(AbstractContract contract) {
+        byNumber.remove(contract.getContractNumber(), contract);
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                byNumber.remove(child.getContractNumber(), child);
+                List<MasterVehicleContract> childMasters = masters.get(child);
+                if (childMasters != null) {
+                    childMasters.remove(master);
+                    if (childMasters.isEmpty()) {
+                        masters.remove(child);
+                    }
+                }
+                if (!masters.containsKey(child)) {
+                    byPlate.remove(child); //zmluva uz nie je ani v inej master zmluve poistovne
+                }
+            }
+        } else if (contract instanceof SingleVehicleContract single) {
+            byPlate.remove(single);
+        }
+    }
+
+    SingleVehicleContract findByPlate(String licensePlate) {
+        return byPlate.find(licensePlate);
+    }
+
+    boolean isInsuredByOther(String licensePlate, Person policyHolder) {
+        return byPlate.isInsuredByOther(licensePlate, policyHolder);
+    }
+
+    //ci sa ma na zmluve uctovat poistne - rovnako ako v chargePremiumsOnContracts:
+    //zmluva je aktivna priamo v poistovni, alebo je dcerskou zmluvou aktivnej master zmluvy v poistovni
+    boolean isBillable(AbstractContract contract) {
+        if (contracts.containsKey(contract)) {
+            return contract.isActive();
+        }
+        List<MasterVehicleContract> childMasters = masters.get(contract);
+        if (childMasters == null) {
+            return false;
+        }
+        for (MasterVehicleContract master : childMasters) {
+            if (contracts.containsKey(master)
+                    && master.getChildContracts().contains(contract)
+                    && master.isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean containsNumber(String contractNumber) {
+        return byNumber.containsKey(contractNumber);
+    }
+
+    AbstractContract find(String contractNumber) {
+        return byNumber.get(contractNumber);
+    }
+}
@@ -0,0 +1,28 @@
+package company;
+
+//vysledok hromadneho importu - kolko riadkov sa zapisalo do poistovne a kolko sa odmietlo
+public class ImportSummary {
+    private final long importedRows;
+    private final long rejectedRows;
+
+    //Konštruktor:
+    public ImportSummary(long importedRows, long rejectedRows) {
+        if (importedRows < 0 || rejectedRows < 0) {
+            throw new IllegalArgumentException("Počty riadkov nesmú byť záporné.");
+        }
+        this.importedRows = importedRows;
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public ImportSummary combine(ImportSummary other) {
+        return new ImportSummary(importedRows + other.importedRows, rejectedRows + other.rejectedRows);
+    }
+}
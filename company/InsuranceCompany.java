@@ -2,24 +2,46 @@ package company;
 
 import contracts.*;
 import objects.Person;
+import objects.PersonRegistry;
 import objects.Vehicle;
 import payment.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
 
 public class InsuranceCompany {
-    private final Set<AbstractContract> contracts;
+    private final ContractRegistry contracts;
+    private final BillingScheduler scheduler;
     private final PaymentHandler handler;
-    private LocalDateTime currentTime;
+    private final ContractLocks locks; //pravidla zamykania su popisane v ContractLocks
+    private final PersonRegistry persons; //kazdy zakaznik je jeden objekt na vsetkych zmluvach
+    private final PaymentDataStore paymentStore; //platobne udaje zmlov poistovne po stlpcoch
+    private volatile LocalDateTime currentTime;
+    private volatile CommandLog commandLog; //null = operacie sa nezapisuju
+    private final ThreadLocal<long[]> batchCommit; //posledny zaznam logu davky vlakna, null mimo davky
 
     //konštruktor:
     public InsuranceCompany(LocalDateTime currentTime) {
+        this(currentTime, new PaymentDataStore());
+    }
+
+    //paymentStore urcuje, kde su platobne udaje zmlov - napr. new PaymentDataStore(true) pre ulozenie mimo haldy
+    public InsuranceCompany(LocalDateTime currentTime, PaymentDataStore paymentStore) {
         if (currentTime == null) {
             throw new IllegalArgumentException("Čas nesmie byť null.");
         }
+        if (paymentStore == null) {
+            throw new IllegalArgumentException("Sklad platobných údajov nesmie byť null.");
+        }
         this.currentTime = currentTime;
-        this.contracts = new LinkedHashSet<>(); // zachováva poradie
-        this.handler = new PaymentHandler(this);
+        this.locks = new ContractLocks();
+        this.scheduler = new BillingScheduler();
+        this.contracts = new ContractRegistry(scheduler); // zachováva poradie, drzi aj index cisel zmluv
+        this.handler = new PaymentHandler(this, new PaymentLog()); //platby idu do logu len cez tento handler
+        this.persons = new PersonRegistry();
+        this.paymentStore = paymentStore;
+        this.batchCommit = new ThreadLocal<>();
     }
 
     public LocalDateTime getCurrentTime() {
@@ -30,18 +52,134 @@ public class InsuranceCompany {
         if (currentTime == null) {
             throw new IllegalArgumentException("Čas nesmie byť null.");
         }
+        CommandLog log = writableLog();
         this.currentTime = currentTime;
+        if (log != null) {
+            log.awaitDurable(log.clock(currentTime));
+        }
+    }
+
+    //odteraz sa vsetky menjace operacie zapisuju do logu; pri obnove sa log najprv prehra (CommandLog.replay)
+    //na novej poistovni a az potom sa pripoji, inak by sa prehrane operacie zapisali znova
+    public void setCommandLog(CommandLog commandLog) {
+        this.commandLog = commandLog;
+        if (commandLog != null) {
+            commandLog.awaitDurable(commandLog.clock(currentTime)); //aby prehranie zacalo v spravnom case
+        }
+    }
+
+    public CommandLog getCommandLog() {
+        return commandLog;
+    }
+
+    //pripojeny log (alebo null) - zatvoreny log, alebo log, ktoremu zlyhal zapis, odmietne operaciu este predtym,
+    //ako zmeni stav poistovne
+    private CommandLog writableLog() {
+        CommandLog log = commandLog;
+        if (log != null) {
+            log.ensureWritable();
+        }
+        return log;
+    }
+
+    //pocka na zapis zaznamu operacie - volat az po uvolneni zamkov, aby jeden fsync mohol potvrdit viac operacii
+    //v davke (runBatch) sa len zapamata posledny zaznam a na zapis sa pocka raz na konci davky
+    private void commit(CommandLog log, long position) {
+        long[] batch = batchCommit.get();
+        if (batch != null) {
+            batch[0] = Math.max(batch[0], position);
+            return;
+        }
+        if (log != null) {
+            log.awaitDurable(position);
+        }
+    }
+
+    //vykona viac operacii naraz pod zamkom struktury (hromadny import) - ine vlakna medzitym nepoistuju
+    //a operacie davky sa do logu potvrdia jednym cakanim na zapis
+    void runBatch(Runnable batch) {
+        long[] last = {-1};
+        CommandLog log;
+        locks.writeLock().lock();
+        try {
+            log = commandLog;
+            batchCommit.set(last);
+            try {
+                batch.run();
+            } finally {
+                batchCommit.remove();
+            }
+        } finally {
+            locks.writeLock().unlock();
+        }
+        if (log != null && last[0] >= 0) {
+            log.awaitDurable(last[0]);
+        }
     }
 
+    //ziva mnozina zmlov - pri praci z viacerych vlakien ju menit len cez metody poistovne
     public Set<AbstractContract> getContracts() {
         //return Collections.unmodifiableSet(contracts);
         return contracts;
     }
 
+    //kopia mnoziny zmlov, ktoru mozno bezpecne prechadzat aj kym ine vlakna poistuju a presuvaju zmluvy
+    public Set<AbstractContract> getContractsSnapshot() {
+        locks.readLock().lock();
+        try {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(contracts));
+        } finally {
+            locks.readLock().unlock();
+        }
+    }
+
+    //prechadzanie zmlov po strankach - stranku treba citat pod zamkom struktury (getLocks().readLock())
+    ContractRegistry.Cursor contractCursor() {
+        return contracts.cursor();
+    }
+
+    //aktivne zmluvy poistovne (pohlad len na citanie, poradie nie je zarucene)
+    public Set<AbstractContract> getActiveContracts() {
+        return Collections.unmodifiableSet(contracts.activeContracts());
+    }
+
+    //zaniknute zmluvy poistovne (pohlad len na citanie, poradie nie je zarucene)
+    public Set<AbstractContract> getInactiveContracts() {
+        return Collections.unmodifiableSet(contracts.inactiveContracts());
+    }
+
+    //zmluva oznamuje zmenu svojho stavu (zanik, zmena flotily master zmluvy)
+    public void refreshContractState(AbstractContract contract) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Zmluva contract nesmie byť null.");
+        }
+        contracts.refreshState(contract);
+    }
+
     public PaymentHandler getHandler() {
         return handler;
     }
 
+    public ContractLocks getLocks() {
+        return locks;
+    }
+
+    public PaymentDataStore getPaymentDataStore() {
+        return paymentStore;
+    }
+
+    public PersonRegistry getPersons() {
+        return persons;
+    }
+
+    //najde zakaznika poistovne podla id; ak este nema ziadnu zmluvu, vrati null
+    public Person findPerson(String id) {
+        return persons.findPerson(id);
+    }
+
+    //osoby s id, ktore poistovna uz pozna, nahradi jej osobami (PersonRegistry) - zmluva, platby aj zoznam zmlov
+    //poistnika su potom na registrovanej osobe, objekt volajuceho ostane bez zmluvy; registrovanu osobu vrati
+    //getPolicyHolder() vratenej zmluvy, pripadne findPerson
     public SingleVehicleContract insureVehicle(
             String contractNumber,
             Person beneficiary,
@@ -49,6 +187,31 @@ public class InsuranceCompany {
             int proposedPremium,
             PremiumPaymentFrequency proposedPaymentFrequency,
             Vehicle vehicleToInsure
+    ) {
+        CommandLog log = writableLog();
+        long position = -1;
+        SingleVehicleContract contract;
+        locks.writeLock().lock();
+        try {
+            contract = insureVehicleLocked(contractNumber, beneficiary, policyHolder, proposedPremium,
+                    proposedPaymentFrequency, vehicleToInsure);
+            if (log != null) {
+                position = log.insureVehicle(currentTime, contract);
+            }
+        } finally {
+            locks.writeLock().unlock();
+        }
+        commit(log, position);
+        return contract;
+    }
+
+    private SingleVehicleContract insureVehicleLocked(
+            String contractNumber,
+            Person beneficiary,
+            Person policyHolder,
+            int proposedPremium,
+            PremiumPaymentFrequency proposedPaymentFrequency,
+            Vehicle vehicleToInsure
     ) {
         // Kontrola potrebných parametrov (v zadani sa hovorí o nevalidných hodnotách)
         if (contractNumber == null || contractNumber.isEmpty()
@@ -85,8 +248,17 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("Ročná platba musi byt vacsia alebo rovna rovná 2% z ceny vozidla");
         }
 
-        //Vytvorim nove platobne udaje
-        ContractPaymentData paymentData = new ContractPaymentData(
+        //ak uz poistovna osoby s tymito id pozna, zmluva dostane tie iste objekty
+        beneficiary = persons.resolve(beneficiary);
+        policyHolder = persons.resolve(policyHolder);
+
+        //to iste vozidlo nemoze byt poistene dvoma poistnikmi naraz (ten isty poistnik si ho poistit moze)
+        if (contracts.isInsuredByOther(vehicleToInsure.getLicensePlate(), policyHolder)) {
+            throw new IllegalArgumentException("Vozidlo s týmto evidenčným číslom už je poistené iným poistníkom.");
+        }
+
+        //Vytvorim nove platobne udaje (riadok v sklade poistovne)
+        ContractPaymentData paymentData = paymentStore.add(
                 proposedPremium,
                 proposedPaymentFrequency,
                 currentTime,
@@ -94,37 +266,93 @@ public class InsuranceCompany {
         );
 
         //Vytvorim zmluvu s coverageAmount = polovica hodnoty vozidla
-        SingleVehicleContract contract = new SingleVehicleContract(
-                contractNumber,
-                this,
-                beneficiary,
-                policyHolder,
-                paymentData,
-                vehicleToInsure.getOriginalValue() / 2,
-                vehicleToInsure
-        );
+        //ak ju konstruktor odmietne, riadok v sklade sa vrati, inak by ho zauctovanie a vykazy pocitali navzdy
+        SingleVehicleContract contract;
+        try {
+            contract = new SingleVehicleContract(
+                    contractNumber,
+                    this,
+                    beneficiary,
+                    policyHolder,
+                    paymentData,
+                    vehicleToInsure.getOriginalValue() / 2,
+                    vehicleToInsure
+            );
+        } catch (RuntimeException e) {
+            paymentStore.removeLast(paymentData);
+            throw e;
+        }
 
-        chargePremiumOnContract(contract);
+        charge(contract, null); //zaznam poistenia pokryva aj prve zauctovanie
         contracts.add(contract);
+        registerPersons(contract);
         policyHolder.addContract(contract);
         return contract;
     }
 
     private boolean contractExists(String contractNumber) {
-        for (AbstractContract c : contracts) {
-            if (c.getContractNumber().equals(contractNumber)) {
-                return true;
-            }
+        return contracts.containsNumber(contractNumber);
+    }
+
+    //najde zmluvu podla cisla, aj ked uz bola presunuta do master zmluvy; ak neexistuje, vrati null
+    public AbstractContract findContract(String contractNumber) {
+        if (contractNumber == null) {
+            throw new IllegalArgumentException("Číslo zmluvy nesmie byť null.");
+        }
+        locks.readLock().lock(); //index cisel sa meni pod zapisovym zamkom
+        try {
+            return contracts.find(contractNumber);
+        } finally {
+            locks.readLock().unlock();
         }
-        return false;
     }
 
+    //aktivna zmluva na vozidlo s danym EC (aj ked je v master zmluve); ak vozidlo nie je poistene, vrati null
+    public SingleVehicleContract findContractByLicensePlate(String licensePlate) {
+        if (licensePlate == null) {
+            throw new IllegalArgumentException("Evidenčné číslo nesmie byť null.");
+        }
+        locks.readLock().lock(); //aby zmluva nebola prave v polovici presunu do master zmluvy
+        try {
+            return contracts.findByPlate(licensePlate);
+        } finally {
+            locks.readLock().unlock();
+        }
+    }
+
+    //osoby s id, ktore poistovna uz pozna, nahradi jej osobami (PersonRegistry) - zmluva, platby aj zoznam zmlov
+    //poistnika su potom na registrovanej osobe, objekt volajuceho ostane bez zmluvy; registrovanu osobu vrati
+    //getPolicyHolder() vratenej zmluvy, pripadne findPerson
     public TravelContract insurePersons(
             String contractNumber,
             Person policyHolder,
             int proposedPremium,
             PremiumPaymentFrequency proposedPaymentFrequency,
             Set<Person> personsToInsure
+    ) {
+        CommandLog log = writableLog();
+        long position = -1;
+        TravelContract contract;
+        locks.writeLock().lock();
+        try {
+            contract = insurePersonsLocked(contractNumber, policyHolder, proposedPremium,
+                    proposedPaymentFrequency, personsToInsure);
+            if (log != null) {
+                position = log.insurePersons(currentTime, contract);
+            }
+        } finally {
+            locks.writeLock().unlock();
+        }
+        commit(log, position);
+        return contract;
+    }
+
+    private TravelContract insurePersonsLocked(
+            String contractNumber,
+            Person policyHolder,
+            int proposedPremium,
+            PremiumPaymentFrequency proposedPaymentFrequency,
+            Set<Person> personsToInsure
     ) {
         //musim kontrolovat vsetky tieto parametre lebo su pouzivane vo vypoctoch
         if (contractNumber == null || policyHolder == null
@@ -144,41 +372,76 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("proposedPremium musí byť kladné.");
         }
 
+        //ak uz poistovna osoby s tymito id pozna, zmluva dostane tie iste objekty
+        policyHolder = persons.resolve(policyHolder);
+        personsToInsure = resolvePersons(personsToInsure);
+
         int annualPayment = proposedPremium * (12 / proposedPaymentFrequency.getValueInMonths());
         int minimumRequired = personsToInsure.size() * 5;
         if (annualPayment < minimumRequired) {
             throw new IllegalArgumentException("Ročná platba musi byt vacsia alebo rovna patnasobku poctu poistenych osob.");
         }
 
-        //vytvorim platobne udaje
-        ContractPaymentData paymentData = new ContractPaymentData(
+        //vytvorim platobne udaje (riadok v sklade poistovne)
+        ContractPaymentData paymentData = paymentStore.add(
                 proposedPremium,
                 proposedPaymentFrequency,
                 currentTime,
                 0
         );
 
-        //vytvorim novu zmluvu
-        TravelContract contract = new TravelContract(
-                contractNumber,
-                this,
-                policyHolder,
-                paymentData,
-                personsToInsure.size() * 10,
-                personsToInsure
-        );
+        //vytvorim novu zmluvu (ak ju konstruktor odmietne, riadok v sklade sa vrati)
+        TravelContract contract;
+        try {
+            contract = new TravelContract(
+                    contractNumber,
+                    this,
+                    policyHolder,
+                    paymentData,
+                    personsToInsure.size() * 10,
+                    personsToInsure
+            );
+        } catch (RuntimeException e) {
+            paymentStore.removeLast(paymentData);
+            throw e;
+        }
 
         //aktualizujem nedoplatok, ulozim zmluvu
-        chargePremiumOnContract(contract);
+        charge(contract, null);
         contracts.add(contract);
+        registerPersons(contract);
         policyHolder.addContract(contract);
         return contract;
     }
 
+    //osoby s id, ktore poistovna uz pozna, nahradi jej osobami (PersonRegistry) - zmluva, platby aj zoznam zmlov
+    //poistnika su potom na registrovanej osobe, objekt volajuceho ostane bez zmluvy; registrovanu osobu vrati
+    //getPolicyHolder() vratenej zmluvy, pripadne findPerson
     public MasterVehicleContract createMasterVehicleContract(
             String contractNumber,
             Person beneficiary,
             Person policyHolder
+    ) {
+        CommandLog log = writableLog();
+        long position = -1;
+        MasterVehicleContract contract;
+        locks.writeLock().lock();
+        try {
+            contract = createMasterVehicleContractLocked(contractNumber, beneficiary, policyHolder);
+            if (log != null) {
+                position = log.createMaster(currentTime, contract);
+            }
+        } finally {
+            locks.writeLock().unlock();
+        }
+        commit(log, position);
+        return contract;
+    }
+
+    private MasterVehicleContract createMasterVehicleContractLocked(
+            String contractNumber,
+            Person beneficiary,
+            Person policyHolder
     ) {
         if (contractNumber == null || policyHolder == null) {
             throw new IllegalArgumentException("contractnumber ani policyholder nesmu byť null.");
@@ -188,6 +451,9 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("Zmluva s týmto číslom už jestvuje.");
         }
 
+        beneficiary = persons.resolve(beneficiary);
+        policyHolder = persons.resolve(policyHolder);
+
         //Vytvorim MasterVehicleContract
         MasterVehicleContract contract = new MasterVehicleContract(
                 contractNumber,
@@ -197,13 +463,54 @@ public class InsuranceCompany {
 
         //ulozim zmluvu
         contracts.add(contract);
+        registerPersons(contract);
         policyHolder.addContract(contract);
         return contract;
     }
 
+    //osoby z parametra nahradi osobami s rovnakym id, ktore uz poistovna pozna
+    private Set<Person> resolvePersons(Set<Person> personsToInsure) {
+        Set<Person> resolved = new LinkedHashSet<>();
+        for (Person person : personsToInsure) {
+            resolved.add(persons.resolve(person));
+        }
+        return resolved;
+    }
+
+    //osoby sa registruju az ked zmluva naozaj vznikla
+    private void registerPersons(AbstractContract contract) {
+        persons.intern(contract.getPolicyHolder());
+        if (contract instanceof AbstractVehicleContract vehicleContract && vehicleContract.getBeneficiary() != null) {
+            persons.intern(vehicleContract.getBeneficiary());
+        }
+        if (contract instanceof TravelContract travelContract) {
+            for (Person person : travelContract.getInsuredPersons()) {
+                persons.intern(person);
+            }
+        }
+    }
+
     public void moveSingleVehicleContractToMasterVehicleContract(
             MasterVehicleContract masterVehicleContract,
             SingleVehicleContract singleVehicleContract
+    ) {
+        CommandLog log = writableLog();
+        long position = -1;
+        locks.writeLock().lock();
+        try {
+            moveSingleVehicleContractToMasterVehicleContractLocked(masterVehicleContract, singleVehicleContract);
+            if (log != null) {
+                position = log.move(currentTime, masterVehicleContract, singleVehicleContract);
+            }
+        } finally {
+            locks.writeLock().unlock();
+        }
+        commit(log, position);
+    }
+
+    private void moveSingleVehicleContractToMasterVehicleContractLocked(
+            MasterVehicleContract masterVehicleContract,
+            SingleVehicleContract singleVehicleContract
 
     ) {
         //nic nesmie byt null
@@ -227,39 +534,154 @@ public class InsuranceCompany {
             throw new InvalidContractException("Zmluvy musia mať rovnakého poistníka.");
         }
 
-        //odstranim zmluvu tu
-        contracts.remove(singleVehicleContract);
-        singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
-
-        //Pridam do mastervehicle contract
-        //masterVehicleContract.getChildContracts().add(singleVehicleContract);
-        masterVehicleContract.addChildContract(singleVehicleContract);
+        //zamknem obe zmluvy, aby platba alebo poistna udalost nevidela zmluvu v polovici presunu
+        List<Lock> locked = locks.lockAll(List.of(masterVehicleContract, singleVehicleContract));
+        try {
+            //odstranim zmluvu tu (cislo zmluvy ostava v indexe, zmluva len zmeni miesto)
+            contracts.detach(singleVehicleContract);
+            singleVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
+
+            //Pridam do mastervehicle contract
+            //masterVehicleContract.getChildContracts().add(singleVehicleContract);
+            masterVehicleContract.addChildContract(singleVehicleContract);
+            contracts.indexChild(masterVehicleContract, singleVehicleContract);
+        } finally {
+            locks.unlockAll(locked);
+        }
     }
 
+    //zauctovanie jednej zmluvy sa s pripojenym logom zapise ako samostatny zaznam (nie je to beh celeho portfolia)
     public void chargePremiumOnContract(AbstractContract contract) {
-        ContractPaymentData data = contract.getContractPaymentData();
-
-        //ak je termin splatnosti rovny alebo alebo pred casom currenttime
-        while (!data.getNextPaymentTime().isAfter(currentTime)) {
-            //zvysi nedoplatok o hodnotu premium
-            int newBalance = data.getOutstandingBalance() + data.getPremium();
-            data.setOutstandingBalance(newBalance);
-            data.updateNextPaymentTime(); //updatene cas splatnosti
-        }
+        CommandLog log = writableLog();
+        commit(log, charge(contract, log));
     }
 
     public void chargePremiumOnContract(MasterVehicleContract contract) {
+        CommandLog log = writableLog();
+        long position = -1;
         for (SingleVehicleContract child : contract.getChildContracts()) {
-            chargePremiumOnContract(child);
+            position = Math.max(position, charge(child, log)); //na zapis sa caka raz za celu flotilu
+        }
+        commit(log, position);
+    }
+
+    //zvysi nedoplatok o vsetky poistne, ktorych termin splatnosti je rovny alebo pred currentTime,
+    //a posunie cas splatnosti - naraz, nie po jednom obdobi
+    //zaznam ide do logu pod zamkom zmluvy, takze je v poradi voci platbam a poistnym udalostiam tej zmluvy;
+    //vrati poziciu zaznamu, -1 ak sa nezapisuje (log == null)
+    private long charge(AbstractContract contract, CommandLog log) {
+        ContractPaymentData data = contract.getContractPaymentData();
+        Lock lock = locks.lockFor(contract);
+        lock.lock();
+        try {
+            data.chargeDuePremiums(currentTime);
+            return log != null ? log.chargeContract(currentTime, contract) : -1;
+        } finally {
+            lock.unlock();
         }
     }
 
+    //zamok struktury pre beh zauctovania celeho portfolia: bez logu citaci, zauctovanie ide sucasne s platbami;
+    //s logom zapisovy - beh sa zapise ako jeden zaznam CHARGE az na konci, takze platba master zmluvy
+    //ani poistna udalost (obe drzia citaci zamok) nesmu prebehnut pocas neho, inak by ich zaznam bol v logu
+    //pred zauctovanim, ktore sa ich zmluv dotklo skor; obycajne platby sa so zauctovanim zamenit daju
+    private Lock billingLock(CommandLog log) {
+        return log != null ? locks.writeLock() : locks.readLock();
+    }
+
     public void chargePremiumsOnContracts() {
-        for (AbstractContract contract : contracts) {
-            if (contract.isActive()) {
-                contract.updateBalance();
+        CommandLog log = writableLog();
+        long position = -1;
+        Lock structure = billingLock(log);
+        structure.lock();
+        try {
+            //neaktivne zmluvy sa vobec neprechadzaju; stav overujem aj tu, zmluva mohla medzitym zaniknut
+            //rovnako ako updateBalance, ale bez zaznamu za kazdu zmluvu - cely beh je jeden zaznam CHARGE
+            for (AbstractContract contract : contracts.activeContracts()) {
+                if (!contract.isActive()) {
+                    continue;
+                }
+                if (contract instanceof MasterVehicleContract master) {
+                    for (SingleVehicleContract child : master.getChildContracts()) {
+                        charge(child, null);
+                    }
+                } else {
+                    charge(contract, null);
+                }
+            }
+            if (log != null) {
+                position = log.charge(currentTime);
+            }
+        } finally {
+            structure.unlock();
+        }
+        commit(log, position);
+    }
+
+    //posunie cas a zauctuje poistne len na zmluvach, ktorym medzicasom nastal termin splatnosti
+    public BillingSummary advanceTime(LocalDateTime newTime) {
+        setCurrentTime(newTime);
+        return chargeDuePremiumsOnContracts();
+    }
+
+    //rovnaky vysledok ako chargePremiumsOnContracts, ale cez planovac - prejdu sa len splatne zmluvy
+    public BillingSummary chargeDuePremiumsOnContracts() {
+        CommandLog log = writableLog();
+        long position = -1;
+        BillingSummary summary;
+        Lock structure = billingLock(log);
+        structure.lock();
+        try {
+            summary = scheduler.chargeDue(currentTime, contracts::isBillable, locks);
+            if (log != null) {
+                position = log.charge(currentTime);
+            }
+        } finally {
+            structure.unlock();
+        }
+        commit(log, position);
+        return summary;
+    }
+
+    public BillingSummary chargePremiumsOnContractsInParallel() {
+        return chargePremiumsOnContractsInParallel(ForkJoinPool.commonPool());
+    }
+
+    //to iste ako chargePremiumsOnContracts, ale portfolio sa rozdeli medzi vlakna z poolu
+    //master zmluvy sa rozbalia na dcerske zmluvy, takze aj velka flotila sa rozdeli medzi viac vlakien
+    //a kazde platobne udaje meni prave jedno vlakno
+    public BillingSummary chargePremiumsOnContractsInParallel(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool nesmie byť null.");
+        }
+
+        CommandLog log = writableLog();
+        long position = -1;
+        BillingSummary summary;
+        Lock structure = billingLock(log);
+        structure.lock();
+        try {
+            List<AbstractContract> toCharge = new ArrayList<>(contracts.activeContracts().size());
+            for (AbstractContract contract : contracts.activeContracts()) {
+                if (!contract.isActive()) {
+                    continue;
+                }
+                if (contract instanceof MasterVehicleContract master) {
+                    toCharge.addAll(master.getChildContracts()); //rovnako ako chargePremiumOnContract(master)
+                } else {
+                    toCharge.add(contract);
+                }
+            }
+
+            summary = pool.invoke(new BillingTask(toCharge, 0, toCharge.size(), currentTime, locks));
+            if (log != null) {
+                position = log.charge(currentTime);
             }
+        } finally {
+            structure.unlock();
         }
+        commit(log, position);
+        return summary;
     }
 
     public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) {
@@ -267,46 +689,115 @@ public class InsuranceCompany {
             throw new IllegalArgumentException("Neplatné vstupné údaje.");
         }
 
-        if (!singleVehicleContract.isActive()) {
-            throw new InvalidContractException("Zmluva nie je aktívna.");
-        }
+        //pod zamkom zmluvy, aby dve sucasne udalosti nevyplatili plnenie po tom, co zmluva zanikla
+        CommandLog log = writableLog();
+        long position = -1;
+        //citaci zamok struktury - s logom nesmie udalost prebehnut pocas behu zauctovania (billingLock)
+        locks.readLock().lock();
+        Lock lock = locks.lockFor(singleVehicleContract);
+        lock.lock();
+        try {
+            if (!singleVehicleContract.isActive()) {
+                throw new InvalidContractException("Zmluva nie je aktívna.");
+            }
 
-        //Vyplatenie poistneho plnenia
-        int payoutAmount = singleVehicleContract.getCoverageAmount();
-        Person recipient = singleVehicleContract.getBeneficiary();
+            //Vyplatenie poistneho plnenia
+            int payoutAmount = singleVehicleContract.getCoverageAmount();
+            Person recipient = singleVehicleContract.getBeneficiary();
 
-        if (recipient != null) {
-            recipient.payout(payoutAmount);
-        } else {
-            singleVehicleContract.getPolicyHolder().payout(payoutAmount);
+            if (recipient != null) {
+                recipient.payout(payoutAmount);
+            } else {
+                singleVehicleContract.getPolicyHolder().payout(payoutAmount);
+            }
+
+            //ak je skoda vacsia ako 70 percent ceny vozidla
+            int vehicleValue = singleVehicleContract.getInsuredVehicle().getOriginalValue();
+            if (expectedDamages >= (int)(vehicleValue * 0.7)) {
+                singleVehicleContract.setInactive();
+            }
+            if (log != null) {
+                position = log.vehicleClaim(currentTime, singleVehicleContract, expectedDamages);
+            }
+        } finally {
+            lock.unlock();
+            locks.readLock().unlock();
         }
+        commit(log, position);
+    }
 
-        //ak je skoda vacsia ako 70 percent ceny vozidla
-        int vehicleValue = singleVehicleContract.getInsuredVehicle().getOriginalValue();
-        if (expectedDamages >= (int)(vehicleValue * 0.7)) {
-            singleVehicleContract.setInactive();
+    //poistna udalost nahlasena len podla EC vozidla
+    public void processClaimByLicensePlate(String licensePlate, int expectedDamages) {
+        if (licensePlate == null || expectedDamages <= 0) {
+            throw new IllegalArgumentException("Neplatné vstupné údaje.");
         }
+        SingleVehicleContract contract = contracts.findByPlate(licensePlate);
+        if (contract == null) {
+            throw new InvalidContractException("Vozidlo nemá aktívnu zmluvu.");
+        }
+        processClaim(contract, expectedDamages);
     }
 
+    //dotknute osoby sa porovnavaju podla id: rozne objekty s rovnakym id su jeden zakaznik, plnenie sa deli
+    //medzi rozne id a vyplati sa registrovanej osobe, nie objektu volajuceho
     public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
         if (travelContract == null || affectedPersons == null || affectedPersons.isEmpty()) {
             throw new IllegalArgumentException("Neplatné vstupné údaje.");
         }
 
+        //zmluva drzi osoby z registra - osoba volajuceho s rovnakym id je ten isty zakaznik
+        affectedPersons = resolvePersons(affectedPersons);
         if (!travelContract.getInsuredPersons().containsAll(affectedPersons)) {
             throw new IllegalArgumentException("Neplatné osoby – musia byť medzi poistenými.");
         }
 
-        if (!travelContract.isActive()) {
-            throw new InvalidContractException("Zmluva nie je aktívna.");
+        CommandLog log = writableLog();
+        long position = -1;
+        //citaci zamok struktury - s logom nesmie udalost prebehnut pocas behu zauctovania (billingLock)
+        locks.readLock().lock();
+        Lock lock = locks.lockFor(travelContract);
+        lock.lock();
+        try {
+            if (!travelContract.isActive()) {
+                throw new InvalidContractException("Zmluva nie je aktívna.");
+            }
+
+            int payoutAmount = travelContract.getCoverageAmount() / affectedPersons.size();
+
+            for (Person person : affectedPersons) {
+                person.payout(payoutAmount);
+            }
+
+            travelContract.setInactive();
+            if (log != null) {
+                position = log.travelClaim(currentTime, travelContract, affectedPersons);
+            }
+        } finally {
+            lock.unlock();
+            locks.readLock().unlock();
         }
+        commit(log, position);
+    }
 
-        int payoutAmount = travelContract.getCoverageAmount() / affectedPersons.size();
+    //zapis platieb z PaymentHandler do logu poistovne (CommandLog.pay nie je verejny, aby nikto
+    //nezapisal platbu, ktora neprebehla)
+    private final class PaymentLog implements PaymentJournal {
+        @Override
+        public void ensureWritable() {
+            writableLog();
+        }
 
-        for (Person person : affectedPersons) {
-            person.payout(payoutAmount);
+        @Override
+        public long paid(LocalDateTime time, AbstractContract contract, int amount) {
+            CommandLog log = commandLog;
+            return log != null ? log.pay(time, contract, amount) : -1;
         }
 
-        travelContract.setInactive();
+        @Override
+        public void commit(long position) {
+            if (position >= 0) {
+                InsuranceCompany.this.commit(commandLog, position);
+            }
+        }
     }
 }
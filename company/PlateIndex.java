@@ -0,0 +1,114 @@
+package company;
+
+import contracts.SingleVehicleContract;
+import objects.LongObjectMap;
+import objects.Person;
+import objects.Vehicle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//EC vozidla -> aktivne zmluvy na vozidlo (takmer vzdy jedna), EC su zbalene do long (Vehicle.packLicensePlate)
+//zmluvy zanikaju aj mimo zamku struktury poistovne (poistna udalost), preto ma index vlastny zamok
+class PlateIndex {
+    private final LongObjectMap<List<SingleVehicleContract>> byPlate;
+    private final Map<String, List<SingleVehicleContract>> unpackable; //EC so znakmi mimo A-Z a 0-9
+    private final ReadWriteLock lock;
+
+    //Konštruktor:
+    PlateIndex() {
+        this.byPlate = new LongObjectMap<>();
+        this.unpackable = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    //stav sa kontroluje pod zamkom - ak zmluva medzitym zanikla, remove bud uz prebehol
+    //(a tu sa zmluva neprida), alebo prebehne az po tomto a zmluvu odoberie
+    void add(SingleVehicleContract contract) {
+        String plate = contract.getInsuredVehicle().getLicensePlate();
+        long key = Vehicle.packLicensePlate(plate);
+        lock.writeLock().lock();
+        try {
+            if (!contract.isActive()) {
+                return;
+            }
+            List<SingleVehicleContract> contracts = key != Vehicle.NO_PACKED_KEY ? byPlate.get(key) : unpackable.get(plate);
+            if (contracts == null) {
+                contracts = new ArrayList<>(1);
+                if (key != Vehicle.NO_PACKED_KEY) {
+                    byPlate.put(key, contracts);
+                } else {
+                    unpackable.put(plate, contracts);
+                }
+            }
+            if (!contracts.contains(contract)) {
+                contracts.add(contract);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(SingleVehicleContract contract) {
+        String plate = contract.getInsuredVehicle().getLicensePlate();
+        long key = Vehicle.packLicensePlate(plate);
+        lock.writeLock().lock();
+        try {
+            List<SingleVehicleContract> contracts = key != Vehicle.NO_PACKED_KEY ? byPlate.get(key) : unpackable.get(plate);
+            if (contracts != null && contracts.remove(contract) && contracts.isEmpty()) {
+                if (key != Vehicle.NO_PACKED_KEY) {
+                    byPlate.remove(key);
+                } else {
+                    unpackable.remove(plate);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //najstarsia aktivna zmluva na vozidlo, null ak vozidlo nie je poistene
+    SingleVehicleContract find(String licensePlate) {
+        lock.readLock().lock();
+        try {
+            List<SingleVehicleContract> contracts = contractsFor(licensePlate);
+            if (contracts != null) {
+                for (SingleVehicleContract contract : contracts) {
+                    if (contract.isActive()) {
+                        return contract;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //ci vozidlo poistuje aktivna zmluva ineho poistnika
+    boolean isInsuredByOther(String licensePlate, Person policyHolder) {
+        lock.readLock().lock();
+        try {
+            List<SingleVehicleContract> contracts = contractsFor(licensePlate);
+            if (contracts != null) {
+                for (SingleVehicleContract contract : contracts) {
+                    if (contract.isActive() && contract.getPolicyHolder() != policyHolder) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SingleVehicleContract> contractsFor(String licensePlate) {
+        long key = Vehicle.packLicensePlate(licensePlate);
+        return key != Vehicle.NO_PACKED_KEY ? byPlate.get(key) : unpackable.get(licensePlate);
+    }
+}
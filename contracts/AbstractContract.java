@@ -10,7 +10,7 @@ public abstract class AbstractContract {
     protected final Person policyHolder;
     protected final ContractPaymentData contractPaymentData;
     protected int coverageAmount;
-    protected boolean isActive;
+    protected volatile boolean isActive; //volatile, aby zanik zmluvy hned videli aj ostatne vlakna
 
     // Konštruktor:
     public AbstractContract(String contractNumber, InsuranceCompany insurer, Person policyHolder,
@@ -58,6 +58,10 @@ public abstract class AbstractContract {
 
     public void setInactive() {
         this.isActive = false;
+        if (contractPaymentData != null) {
+            contractPaymentData.markContractInactive(); //aby vykazy nad skladom platobnych udajov videli zanik
+        }
+        insurer.refreshContractState(this); //poistovna ju preradi medzi neaktivne zmluvy
     }
 
     public void setCoverageAmount(int coverageAmount) {
@@ -5,12 +5,16 @@ import objects.Person;
 import objects.LegalForm;
 import payment.ContractPaymentData;
 
+import java.util.AbstractSet;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MasterVehicleContract extends AbstractVehicleContract {
     private final Set<SingleVehicleContract> childContracts;
+    private final AtomicInteger activeChildCount; //pocet aktivnych dcerskych zmlov, aby isActive nemusel prechadzat flotilu
 
     //Konštruktor:
     public MasterVehicleContract(String contractNumber, InsuranceCompany insurer, Person beneficiary, Person policyHolder) {
@@ -20,7 +24,8 @@ public class MasterVehicleContract extends AbstractVehicleContract {
             throw new IllegalArgumentException("Poistník musí byť právnická osoba.");
         }
 
-        this.childContracts = new LinkedHashSet<>();
+        this.activeChildCount = new AtomicInteger();
+        this.childContracts = new ChildContractSet();
     }
 
     public Set<SingleVehicleContract> getChildContracts() {
@@ -57,12 +62,24 @@ public class MasterVehicleContract extends AbstractVehicleContract {
         if (childContracts.isEmpty()) {
             return super.isActive(); // ak nemá dcerske zmluvy, vrati svoj stav
         }
-        for (SingleVehicleContract contract : childContracts) {
-            if (contract.isActive()) {
-                return true; // aspoň jedna dcerska zmluva je aktivna
-            }
+        return activeChildCount.get() > 0; // aspoň jedna dcerska zmluva je aktivna
+    }
+
+    //vlastny stav master zmluvy bez ohladu na flotilu - isActive ho vrati, len ked je flotila prazdna
+    public boolean isActiveItself() {
+        return super.isActive();
+    }
+
+    //zanik len samotnej master zmluvy, flotila ostane (obnova zo snimky, kde ma kazda dcerska zmluva svoj stav)
+    public void setInactiveItself() {
+        super.setInactive();
+    }
+
+    //dcerska zmluva prave zanikla (vola SingleVehicleContract.setInactive)
+    void childDeactivated() {
+        if (activeChildCount.decrementAndGet() == 0) {
+            insurer.refreshContractState(this); //zanikla posledna aktivna zmluva flotily
         }
-        return false; // ziadne dcerske zmluvy nie su aktivne
     }
 
     //toto som doplnil ako posledne
@@ -70,4 +87,82 @@ public class MasterVehicleContract extends AbstractVehicleContract {
     public void updateBalance() {
         insurer.chargePremiumOnContract(this); //zavola specialnu verziu pre Mastervehicle contract
     }
+
+    //mnozina dcerskych zmlov, ktora pri pridani a odobrati zmluvy aktualizuje pocet aktivnych zmlov
+    //a da dcerskej zmluve vediet, v ktorej master zmluve je (aby mohla hlasit svoj zanik)
+    private class ChildContractSet extends AbstractSet<SingleVehicleContract> {
+        private final Set<SingleVehicleContract> contracts = new LinkedHashSet<>();
+
+        @Override
+        public boolean add(SingleVehicleContract contract) {
+            if (contract == null) {
+                throw new IllegalArgumentException("Pridana zmluva contract nesmie byť null.");
+            }
+            if (!contracts.add(contract)) {
+                return false;
+            }
+            synchronized (contract) { //aby zmluva medzitym nezanikla bez toho, aby sme to zapocitali
+                contract.addMasterContract(MasterVehicleContract.this);
+                if (contract.isActive()) {
+                    activeChildCount.incrementAndGet();
+                }
+            }
+            insurer.refreshContractState(MasterVehicleContract.this); //stav master zmluvy zavisi od flotily
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contracts.remove(o)) {
+                return false;
+            }
+            detach((SingleVehicleContract) o);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return contracts.contains(o);
+        }
+
+        @Override
+        public Iterator<SingleVehicleContract> iterator() {
+            Iterator<SingleVehicleContract> it = contracts.iterator();
+            return new Iterator<>() {
+                private SingleVehicleContract last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public SingleVehicleContract next() {
+                    last = it.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                    detach(last);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return contracts.size();
+        }
+
+        private void detach(SingleVehicleContract contract) {
+            synchronized (contract) {
+                contract.removeMasterContract(MasterVehicleContract.this);
+                if (contract.isActive()) {
+                    activeChildCount.decrementAndGet();
+                }
+            }
+            insurer.refreshContractState(MasterVehicleContract.this);
+        }
+    }
 }
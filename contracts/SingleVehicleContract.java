@@ -5,8 +5,12 @@ import objects.Person;
 import objects.Vehicle;
 import payment.ContractPaymentData;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SingleVehicleContract extends AbstractVehicleContract {
     private final Vehicle insuredVehicle;
+    private List<MasterVehicleContract> masterContracts; //master zmluvy, v ktorych je tato zmluva (vacsinou ziadna alebo jedna)
 
     //Konštruktor:
     public SingleVehicleContract(String contractNumber, InsuranceCompany insurer, Person beneficiary,
@@ -28,4 +32,31 @@ public class SingleVehicleContract extends AbstractVehicleContract {
     public Vehicle getInsuredVehicle() {
         return insuredVehicle;
     }
+
+    //synchronized, aby sa zanik zmluvy ohlasil master zmluve prave raz
+    @Override
+    public synchronized void setInactive() {
+        if (!isActive) {
+            return;
+        }
+        super.setInactive();
+        if (masterContracts != null) {
+            for (MasterVehicleContract master : masterContracts) {
+                master.childDeactivated();
+            }
+        }
+    }
+
+    synchronized void addMasterContract(MasterVehicleContract master) {
+        if (masterContracts == null) {
+            masterContracts = new ArrayList<>(1);
+        }
+        masterContracts.add(master);
+    }
+
+    synchronized void removeMasterContract(MasterVehicleContract master) {
+        if (masterContracts != null) {
+            masterContracts.remove(master);
+        }
+    }
 }
@@ -0,0 +1,181 @@
+package objects;
+
+import java.util.stream.IntStream;
+
+//hromadne overenie rodnych cisel a ICO (napr. pri nocnom importe osob) - rovnake pravidla ako
+//Person.isValidBirthNumber a Person.isValidRegistrationNumber, ale bez vytvarania Person alebo Stringov
+//
+//id su v jednom buffri tesne za sebou, i-te id je na poziciach offsets[i] az offsets[i + 1] - 1,
+//alebo po jednom na riadok (validateLines)
+//buffer sa rozdeli na bloky po 64 id (jedno slovo bitovej mapy) a bloky sa overuju paralelne
+public final class IdBatchValidator {
+    private static final int IDS_PER_TASK = 4096; //64 slov bitovej mapy na jednu ulohu
+
+    private IdBatchValidator() {
+    }
+
+    //byte[] je ASCII (alebo Latin-1); iny ako ASCII znak nikdy nie je cifra
+    public static IdValidationResult validate(byte[] data, int[] offsets) {
+        if (data == null) {
+            throw new IllegalArgumentException("data nesmú byť null.");
+        }
+        checkOffsets(offsets, data.length);
+        return validateBytes(data, offsets, false);
+    }
+
+    public static IdValidationResult validate(char[] data, int[] offsets) {
+        if (data == null) {
+            throw new IllegalArgumentException("data nesmú byť null.");
+        }
+        checkOffsets(offsets, data.length);
+        int count = offsets.length - 1;
+        IdValidationResult result = new IdValidationResult(count);
+        IntStream.range(0, taskCount(count)).parallel().forEach(task -> {
+            CharSlice id = new CharSlice(data);
+            int end = Math.min(count, (task + 1) * IDS_PER_TASK);
+            for (int i = task * IDS_PER_TASK; i < end; i++) {
+                id.reset(offsets[i], offsets[i + 1]);
+                result.set(i, Person.legalFormOf(id));
+            }
+        });
+        return result;
+    }
+
+    //id po jednom na riadok ('\n', pripadne "\r\n"), ako chodia v subore z nocneho importu
+    public static IdValidationResult validateLines(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("data nesmú byť null.");
+        }
+        return validateBytes(data, lineStarts(data), true);
+    }
+
+    //lines = true: bounds su zaciatky riadkov, id konci pred '\n' (a pred '\r', ak tam je)
+    private static IdValidationResult validateBytes(byte[] data, int[] bounds, boolean lines) {
+        int count = bounds.length - 1;
+        IdValidationResult result = new IdValidationResult(count);
+        IntStream.range(0, taskCount(count)).parallel().forEach(task -> {
+            ByteSlice id = new ByteSlice(data);
+            int end = Math.min(count, (task + 1) * IDS_PER_TASK);
+            for (int i = task * IDS_PER_TASK; i < end; i++) {
+                int from = bounds[i];
+                int to = lines ? bounds[i + 1] - 1 : bounds[i + 1];
+                if (lines && to > from && data[to - 1] == '\r') {
+                    to--;
+                }
+                id.reset(from, to);
+                result.set(i, Person.legalFormOf(id));
+            }
+        });
+        return result;
+    }
+
+    //zaciatky riadkov; posledna hodnota je pozicia za oddelovacom posledneho riadku (aj ked v datach chyba)
+    private static int[] lineStarts(byte[] data) {
+        int lines = 0;
+        for (byte b : data) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        boolean lastWithoutNewline = data.length > 0 && data[data.length - 1] != '\n';
+        if (lastWithoutNewline) {
+            lines++;
+        }
+
+        int[] starts = new int[lines + 1];
+        int line = 1;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n' && line < lines) {
+                starts[line++] = i + 1;
+            }
+        }
+        starts[lines] = lastWithoutNewline ? data.length + 1 : data.length;
+        return starts;
+    }
+
+    private static int taskCount(int count) {
+        return (count + IDS_PER_TASK - 1) / IDS_PER_TASK;
+    }
+
+    private static void checkOffsets(int[] offsets, int length) {
+        if (offsets == null || offsets.length == 0) {
+            throw new IllegalArgumentException("offsets musia obsahovať aspoň koniec posledného id.");
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0 || offsets[i] > length || (i > 0 && offsets[i] < offsets[i - 1])) {
+                throw new IllegalArgumentException("Neplatné hranice id na pozícii " + i + ".");
+            }
+        }
+    }
+
+    //pohlad na cast buffra ako CharSequence - jeden objekt na ulohu, nie na id
+    private static final class ByteSlice implements CharSequence {
+        private final byte[] data;
+        private int from;
+        private int length;
+
+        private ByteSlice(byte[] data) {
+            this.data = data;
+        }
+
+        private void reset(int from, int to) {
+            this.from = from;
+            this.length = to - from;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data[from + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(data, from + start, end - start, java.nio.charset.StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+
+    private static final class CharSlice implements CharSequence {
+        private final char[] data;
+        private int from;
+        private int length;
+
+        private CharSlice(char[] data) {
+            this.data = data;
+        }
+
+        private void reset(int from, int to) {
+            this.from = from;
+            this.length = to - from;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return data[from + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(data, from + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(data, from, length);
+        }
+    }
+}
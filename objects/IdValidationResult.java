@@ -0,0 +1,68 @@
+package objects;
+
+//vysledok hromadneho overenia id - dve bitove mapy: platne id a id fyzickych osob
+//i-te id je platne, ak ma nastaveny bit vo valid; pravna forma je NATURAL, ak ma bit aj v natural, inak LEGAL
+public class IdValidationResult {
+    private final int size;
+    private final long[] valid;
+    private final long[] natural;
+
+    //Konštruktor:
+    IdValidationResult(int size) {
+        this.size = size;
+        this.valid = new long[(size + 63) >>> 6];
+        this.natural = new long[(size + 63) >>> 6];
+    }
+
+    //zapis vysledku jedneho id; kazde slovo bitovej mapy zapisuje len jedno vlakno
+    void set(int index, LegalForm form) {
+        if (form == null) {
+            return;
+        }
+        long bit = 1L << index;
+        valid[index >>> 6] |= bit;
+        if (form == LegalForm.NATURAL) {
+            natural[index >>> 6] |= bit;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isValid(int index) {
+        checkIndex(index);
+        return (valid[index >>> 6] & (1L << index)) != 0;
+    }
+
+    //pravna forma i-teho id, alebo null ak id nie je platne
+    public LegalForm getLegalForm(int index) {
+        if (!isValid(index)) {
+            return null;
+        }
+        return (natural[index >>> 6] & (1L << index)) != 0 ? LegalForm.NATURAL : LegalForm.LEGAL;
+    }
+
+    public int getValidCount() {
+        int count = 0;
+        for (long word : valid) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    //kopie bitovych map, napr. na dalsie spracovanie po 64 riadkoch naraz
+    public long[] getValidBitmap() {
+        return valid.clone();
+    }
+
+    public long[] getNaturalBitmap() {
+        return natural.clone();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " mimo rozsahu 0.." + (size - 1));
+        }
+    }
+}
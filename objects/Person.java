@@ -3,10 +3,11 @@ package objects;
 import contracts.AbstractContract;
 import java.util.LinkedHashSet;
 import java.util.Set;
-import java.time.LocalDate;
+import java.time.Year;
 
 
 public class Person {
+    public static final long NO_PACKED_KEY = -1L; //id sa neda zbalit do long
     private final String id;
     private final LegalForm legalForm;
     private int paidOutAmount;
@@ -14,72 +15,154 @@ public class Person {
 
     //Konštruktor:
     public Person(String id) {
-        if (id == null || !isValidId(id)) {
+        LegalForm form = determineLegalForm(id); //id sa overuje len raz
+        if (form == null) {
             throw new IllegalArgumentException("Neplatné id.");
         }
         this.id = id;
-        this.legalForm = determineLegalForm(id);
+        this.legalForm = form;
         this.paidOutAmount = 0;
         this.contracts = new LinkedHashSet<>(); //linked to uklada v poradi, v akom sa do nej vkladali
     }
 
     public static boolean isValidBirthNumber(String birthNumber) {
-        if (birthNumber == null || !(birthNumber.length() == 9 || birthNumber.length() == 10) || !birthNumber.chars().allMatch(Character::isDigit)) {
+        return isBirthNumber(birthNumber);
+    }
+
+    //jeden prechod cez znaky bez substringov a streamov - pri importe osob je to najcastejsie volana metoda
+    //CharSequence, aby sa dali overovat aj id priamo v buffri (IdBatchValidator) bez vytvarania Stringov
+    static boolean isBirthNumber(CharSequence birthNumber) {
+        if (birthNumber == null) {
+            return false;
+        }
+        int length = birthNumber.length();
+        if (length != 9 && length != 10) {
             return false;
         }
 
-        try {
-            int year = Integer.parseInt(birthNumber.substring(0, 2));
-            int month = Integer.parseInt(birthNumber.substring(2, 4));
-            int day = Integer.parseInt(birthNumber.substring(4, 6));
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int checksum = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = Character.digit(birthNumber.charAt(i), 10); //rovnako ako Character.isDigit, -1 ak nie je cifra
+            if (digit < 0) {
+                return false;
+            }
+            if (i < 2) {
+                year = year * 10 + digit;
+            } else if (i < 4) {
+                month = month * 10 + digit;
+            } else if (i < 6) {
+                day = day * 10 + digit;
+            }
+            checksum += (i % 2 == 0 ? 1 : -1) * digit;
+        }
+
+        if ((month >= 51 && month <= 62)) { //je to zena, odcitam 50
+            month -= 50;
+        }
+        if (month < 1 || month > 12) { //ak to nie je ani po odcitani medzi 1-12, tak neplatne
+            return false;
+        }
 
-            if ((month >= 51 && month <= 62)) { //je to zena, odcitam 50
-                month -= 50;
+        if (length == 9) {  //Rok určíme podľa dĺžky rodneho cisla
+            if (year > 53) {  // rok 19RR, ale len do roku 1953 vrátane
+                return false;
             }
-            if (month < 1 || month > 12) { //ak to nie je ani po odcitani medzi 1-12, tak neplatne
+            year += 1900;
+        } else {    // dlzka je 10, takze kontrolná suma pre 10 ciferne rodne cislo
+            if (checksum % 11 != 0) {
                 return false;
             }
+            // rok 19RR alebo 20RR - treba rozlisit 00–53 su 2000–2053, inak 1900–1999
+            year += (year <= 53 ? 2000 : 1900);
+        }
 
-            if (birthNumber.length() == 9) {  //Rok určíme podľa dĺžky rodneho cisla
-                if (year > 53) {  // rok 19RR, ale len do roku 1953 vrátane
-                    return false;
-                }
-                year += 1900;
-            } else {    // dlzka je 10, takze kontrolná suma pre 10 ciferne rodne cislo:
-                int checksum = 0;
-                for (int i = 0; i < 10; i++) {
-                    int digit = Character.getNumericValue(birthNumber.charAt(i));
-                    checksum += (i % 2 == 0 ? 1 : -1) * digit;
-                }
-                if (checksum % 11 != 0) {
-                    return false;
-                }
-                // rok 19RR alebo 20RR - treba rozlisit 00–53 su 2000–2053, inak 1900–1999
-                year += (year <= 53 ? 2000 : 1900);
-            }
+        // platny den v mesiaci - namiesto vytvarania LocalDate a chytania vynimky
+        return day >= 1 && day <= lengthOfMonth(year, month);
+    }
 
-            // Pokus o vytvorenie dátumu – ak failne, nie je to validné RČ
-            LocalDate.of(year, month, day);
-            return true;
+    public static boolean isValidRegistrationNumber(String registrationNumber) {
+        return isRegistrationNumber(registrationNumber);
+    }
 
-        } catch (Exception e) {
+    static boolean isRegistrationNumber(CharSequence registrationNumber) {
+        if (registrationNumber == null) return false;
+        int length = registrationNumber.length();
+        if (length != 6 && length != 8) {
             return false;
         }
+        for (int i = 0; i < length; i++) { // ci su vsetky znaky cisla
+            if (!Character.isDigit(registrationNumber.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public static boolean isValidRegistrationNumber(String registrationNumber) {
-        if (registrationNumber == null) return false;
-        if (registrationNumber.length() == 6 || registrationNumber.length() == 8) {
-            return registrationNumber.chars().allMatch(Character::isDigit); // ci su vsetky znaky cisla
+    //overi id a zaroven urci pravnu formu: rodne cislo = fyzicka osoba, ICO = pravnicka osoba, inak null
+    public static LegalForm determineLegalForm(String id) {
+        return legalFormOf(id);
+    }
+
+    static LegalForm legalFormOf(CharSequence id) {
+        if (isBirthNumber(id)) {
+            return LegalForm.NATURAL;
+        }
+        if (isRegistrationNumber(id)) {
+            return LegalForm.LEGAL;
+        }
+        return null;
+    }
+
+    //id zo 6 az 10 cifier 0-9 ako long: hodnota * 16 + dlzka (dlzka, aby sa nestratili nuly na zaciatku)
+    //id s inymi ciframi (Character.digit ich povoli) sa zbalit neda - NO_PACKED_KEY
+    public static long packId(CharSequence id) {
+        if (id == null || id.length() < 6 || id.length() > 10) {
+            return NO_PACKED_KEY;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_PACKED_KEY;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value << 4 | id.length();
+    }
+
+    public static String unpackId(long key) {
+        int length = (int) (key & 0xF);
+        long value = key >>> 4;
+        if (key < 0 || length < 6 || length > 10) {
+            throw new IllegalArgumentException("Neplatný kľúč id.");
+        }
+        char[] id = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            id[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        if (value != 0) {
+            throw new IllegalArgumentException("Neplatný kľúč id.");
         }
-        return false;
+        return new String(id);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
     }
 
     public String getId() {
         return id;
     }
 
-    public int getPaidOutAmount() {
+    public synchronized int getPaidOutAmount() {
         return paidOutAmount;
     }
 
@@ -99,24 +182,11 @@ public class Person {
     }
 
     //payout vyplatí peniaze osobe, zvýši celkovú vyplatenú sumu:
-    public void payout(int amount) {
+    //synchronized, lebo osoba moze dostat plnenie z viacerych zmlov naraz
+    public synchronized void payout(int amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("vyplatena suma amount musí byť kladná.");
         }
         this.paidOutAmount += amount;
     }
-
-    //nizsie su dve moje funkcie pomocne:
-    private boolean isValidId(String id) {
-        return isValidBirthNumber(id) || isValidRegistrationNumber(id);
-    }
-
-    //ci je fyzicka alebo pravnicka osoba:
-    private LegalForm determineLegalForm(String id) {
-        if (isValidBirthNumber(id)) {
-            return LegalForm.NATURAL;
-        } else {
-            return LegalForm.LEGAL;
-        }
-    }
 }
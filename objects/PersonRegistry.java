@@ -0,0 +1,101 @@
+package objects;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//register osob podla id - kazdy zakaznik je v poistovni jeden objekt Person, nech je na kolkych zmluvach chce
+//(Person nema equals podla id, takze dva objekty s rovnakym id by boli dvaja rozni poistnici)
+//id su zbalene do long (Person.packId), aby register nedrzal String kluce a Map.Entry pre kazdeho zakaznika
+public class PersonRegistry {
+    private final LongObjectMap<Person> persons;
+    private final Map<String, Person> unpackable; //id s ciframi mimo 0-9, v praxi prazdna
+    private final ReadWriteLock lock;
+
+    //Konštruktor:
+    public PersonRegistry() {
+        this.persons = new LongObjectMap<>();
+        this.unpackable = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    //vrati osobu s danym id, ak este nie je v registri, vytvori ju
+    public Person register(String id) {
+        Person person = findPerson(id); //vacsinou uz osoba existuje, staci zamok na citanie
+        if (person != null) {
+            return person;
+        }
+        return intern(new Person(id));
+    }
+
+    //zaregistruje osobu; ak uz je v registri osoba s rovnakym id, vrati tu
+    public Person intern(Person person) {
+        if (person == null) {
+            throw new IllegalArgumentException("Osoba person nesmie byť null.");
+        }
+        long key = Person.packId(person.getId());
+        Person existing;
+        lock.writeLock().lock();
+        try {
+            existing = key != Person.NO_PACKED_KEY
+                    ? persons.putIfAbsent(key, person)
+                    : unpackable.putIfAbsent(person.getId(), person);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return existing != null ? existing : person;
+    }
+
+    //osoba, ktora by sa pouzila namiesto person, ale bez jej registrovania
+    public Person resolve(Person person) {
+        if (person == null) {
+            return null;
+        }
+        Person existing = findPerson(person.getId());
+        return existing != null ? existing : person;
+    }
+
+    //ak osoba s danym id nie je v registri, vrati null
+    public Person findPerson(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Neplatné id.");
+        }
+        long key = Person.packId(id);
+        lock.readLock().lock();
+        try {
+            return key != Person.NO_PACKED_KEY ? persons.get(key) : unpackable.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Person person) {
+        return person != null && findPerson(person.getId()) == person;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return persons.size() + unpackable.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //kopia - register sa moze menit z inych vlakien
+    public Collection<Person> getPersons() {
+        lock.readLock().lock();
+        try {
+            List<Person> result = persons.values();
+            result.addAll(unpackable.values());
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package objects;
 
 public class Vehicle {
+    public static final long NO_PACKED_KEY = -1L; //EC sa neda zbalit do long
+    private static final int PLATE_LENGTH = 7;
+    private static final int PLATE_RADIX = 36; //0-9 a A-Z
     private final String licensePlate;
     private final int originalValue;
 
@@ -24,6 +27,43 @@ public class Vehicle {
         return originalValue;
     }
 
+    //EC zo 7 znakov [A-Z0-9] ako cislo v sustave so zakladom 36 (najviac 36^7, teda menej ako 2^37)
+    //EC s inymi velkymi pismenami alebo ciframi (isUpperCase a isDigit ich povolia) sa zbalit neda - NO_PACKED_KEY
+    public static long packLicensePlate(CharSequence licensePlate) {
+        if (licensePlate == null || licensePlate.length() != PLATE_LENGTH) {
+            return NO_PACKED_KEY;
+        }
+        long key = 0;
+        for (int i = 0; i < PLATE_LENGTH; i++) {
+            char c = licensePlate.charAt(i);
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if (c >= 'A' && c <= 'Z') {
+                value = c - 'A' + 10;
+            } else {
+                return NO_PACKED_KEY;
+            }
+            key = key * PLATE_RADIX + value;
+        }
+        return key;
+    }
+
+    public static String unpackLicensePlate(long key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Neplatný kľúč EČ.");
+        }
+        char[] plate = new char[PLATE_LENGTH];
+        for (int i = PLATE_LENGTH - 1; i >= 0; i--) {
+            plate[i] = Character.toUpperCase(Character.forDigit((int) (key % PLATE_RADIX), PLATE_RADIX));
+            key /= PLATE_RADIX;
+        }
+        if (key != 0) {
+            throw new IllegalArgumentException("Neplatný kľúč EČ.");
+        }
+        return new String(plate);
+    }
+
     //moja pomocna metoda na overenie ci je licenseplate ok:
     private boolean isValidLicensePlate(String licensePlate) {
         if (licensePlate.length() != 7) {
@@ -1,16 +1,28 @@
 package payment;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
+//pohlad na jeden riadok PaymentDataStore - udaje su v stlpcoch skladu (na halde alebo mimo nej), tu je len stranka a riadok
+//splatnost je ulozena ako mesiac od roku 0, den a cas dna; LocalDateTime sa sklada az v getNextPaymentTime
 public class ContractPaymentData {
-    private int premium;
-    private PremiumPaymentFrequency premiumPaymentFrequency;
-    private LocalDateTime nextPaymentTime;
-    private int outstandingBalance;
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    private static final int MAX_YEAR = Integer.MAX_VALUE / 12 - 1; //mesiac od roku 0 sa musi zmestit do int
+
+    private final PaymentDataStore.Page page;
+    private final int row;
+    private final int handle;
 
     //Konštruktor:
     public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency,
                                LocalDateTime nextPaymentTime, int outstandingBalance) {
+        this(null, premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
+    }
+
+    //novy riadok v sklade (PaymentDataStore.add); bez skladu (store == null) ma vlastnu stranku s jednym riadkom
+    ContractPaymentData(PaymentDataStore store, int premium, PremiumPaymentFrequency premiumPaymentFrequency,
+                        LocalDateTime nextPaymentTime, int outstandingBalance) {
         if (premium <= 0) {
             throw new IllegalArgumentException("premium musí byť kladne.");
         }
@@ -20,49 +32,128 @@ public class ContractPaymentData {
         if (nextPaymentTime == null) {
             throw new IllegalArgumentException("Čas nasledujúcej platby nextPaymentTime nesmie byť null.");
         }
+        if (Math.abs(nextPaymentTime.getYear()) > MAX_YEAR) {
+            throw new IllegalArgumentException("Čas nasledujúcej platby nextPaymentTime je mimo rozsahu.");
+        }
+
+        if (store == null) {
+            this.handle = 0;
+            this.page = PaymentDataStore.singleRow();
+            this.row = 0;
+        } else {
+            this.handle = store.allocate();
+            this.page = store.page(handle);
+            this.row = store.row(handle);
+        }
+        page.premium(row, premium);
+        page.frequency(row, premiumPaymentFrequency.ordinal());
+        setNextPaymentTime(nextPaymentTime);
+        page.outstandingBalance(row, outstandingBalance);
+        page.active(row, true);
+    }
+
+    //pohlad na existujuci riadok (PaymentDataStore.get)
+    ContractPaymentData(PaymentDataStore store, int handle) {
+        this.handle = handle;
+        this.page = store.page(handle);
+        this.row = store.row(handle);
+    }
+
+    //cislo riadku v sklade
+    public int getHandle() {
+        return handle;
+    }
+
+    PaymentDataStore.Page page() {
+        return page;
+    }
+
+    //kopia stavu zmluvy, aby vykazy nad skladom nemuseli chodit do objektov zmlov
+    public boolean isContractActive() {
+        return page.active(row);
+    }
 
-        this.premium = premium;
-        this.premiumPaymentFrequency = premiumPaymentFrequency;
-        this.nextPaymentTime = nextPaymentTime;
-        this.outstandingBalance = outstandingBalance;
+    //vola AbstractContract.setInactive
+    public void markContractInactive() {
+        page.active(row, false);
     }
 
     public int getPremium() {
-        return premium;
+        return page.premium(row);
     }
 
     public void setPremium(int premium) {
         if (premium <= 0) {
             throw new IllegalArgumentException("premium musí byť kladne.");
         }
-        this.premium = premium;
+        page.premium(row, premium);
     }
 
     public void setOutstandingBalance(int outstandingBalance) {
-        this.outstandingBalance = outstandingBalance;
+        page.outstandingBalance(row, outstandingBalance);
     }
 
     public int getOutstandingBalance() {
-        return outstandingBalance;
+        return page.outstandingBalance(row);
     }
 
     public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
         if (premiumPaymentFrequency == null) {
             throw new IllegalArgumentException("Frekvencia platby premiumPaymentFrequency nesmie byť null.");
         }
-        this.premiumPaymentFrequency = premiumPaymentFrequency;
+        page.frequency(row, premiumPaymentFrequency.ordinal());
     }
 
     public PremiumPaymentFrequency getPremiumPaymentFrequency() {
-        return premiumPaymentFrequency;
+        return FREQUENCIES[page.frequency(row)];
     }
 
     public LocalDateTime getNextPaymentTime() {
-        return nextPaymentTime;
+        int month = page.dueMonth(row);
+        return LocalDateTime.of(
+                LocalDate.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, page.dueDay(row)),
+                LocalTime.ofNanoOfDay(page.dueNano(row)));
     }
 
+    //datum splatnosti ako jedno cislo (mesiac od roku 0 * 32 + den) - poradie je rovnake ako poradie datumov
+    public long getNextPaymentDate() {
+        return packDate(page.dueMonth(row), page.dueDay(row));
+    }
+
+    public long getNextPaymentNanoOfDay() {
+        return page.dueNano(row);
+    }
+
+    public static long packDate(LocalDateTime time) {
+        return packDate(epochMonth(time), time.getDayOfMonth());
+    }
+
+    private static long packDate(int epochMonth, int day) {
+        return (long) epochMonth << 5 | day;
+    }
+
+    private void setNextPaymentTime(LocalDateTime nextPaymentTime) {
+        page.dueMonth(row, epochMonth(nextPaymentTime));
+        page.dueDay(row, nextPaymentTime.getDayOfMonth());
+        page.dueNano(row, nextPaymentTime.toLocalTime().toNanoOfDay());
+    }
+
+    //rovnako ako LocalDateTime.plusMonths - den sa skrati na dlzku noveho mesiaca
     public void updateNextPaymentTime() {
-        int mesiace = premiumPaymentFrequency.getValueInMonths();
-        this.nextPaymentTime = this.nextPaymentTime.plusMonths(mesiace);
+        page.advanceDue(row, getPremiumPaymentFrequency().getValueInMonths());
+    }
+
+    //zauctuje vsetky poistne splatne najneskor v currentTime naraz a vrati pocet zauctovanych obdobi
+    //vysledok je rovnaky ako opakovane pripocitanie premium a volanie updateNextPaymentTime()
+    public int chargeDuePremiums(LocalDateTime currentTime) {
+        if (currentTime == null) {
+            throw new IllegalArgumentException("Čas currentTime nesmie byť null.");
+        }
+        return page.chargeRow(row, epochMonth(currentTime), currentTime.getDayOfMonth(),
+                currentTime.toLocalTime().toNanoOfDay());
+    }
+
+    static int epochMonth(LocalDateTime time) {
+        return time.getYear() * 12 + time.getMonthValue() - 1;
     }
 }
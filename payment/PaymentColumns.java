@@ -0,0 +1,172 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+//platby v primitivnych poliach: sekundy od epochy (UTC), nanosekundy a suma
+//platby jednej zmluvy; casovy index poistovne na ne len odkazuje (PaymentTimeIndex)
+//platby su v poradi zaplatenia a na svojom riadku ostanu navzdy - riadok je stale cislo platby, na ktore sa
+//index odkazuje; poradie podla casu je rovnake, kym cas nejde dozadu, potom ho urcuje pole order
+//platby v rovnakom case sa nezlucuju (ostanu v poradi zaplatenia)
+class PaymentColumns {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final AbstractContract contract;
+    private long[] seconds;
+    private int[] nanos; //vacsinou su vsetky nulove, preto sa pole vytvori az pri prvej nenulovej hodnote
+    private int[] amounts;
+    private int[] order; //riadky zoradene podla casu, null kym su platby zaplatene v poradi podla casu
+    private int size;
+
+    //Konštruktor:
+    PaymentColumns(AbstractContract contract) {
+        this.contract = contract;
+        this.seconds = new long[INITIAL_CAPACITY];
+        this.amounts = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    //vrati riadok platby - ten sa uz nezmeni
+    int add(LocalDateTime time, int amount) {
+        long second = time.toEpochSecond(ZoneOffset.UTC);
+        int nano = time.getNano();
+        if (size == seconds.length) {
+            grow();
+        }
+        if (nano != 0 && nanos == null) {
+            nanos = new int[seconds.length];
+        }
+        int row = size;
+        seconds[row] = second;
+        amounts[row] = amount;
+        if (nanos != null) {
+            nanos[row] = nano;
+        }
+
+        //platby chodia takmer vzdy v poradi, ak nie (cas sa posunul dozadu), zaradim ju za vsetky s rovnakym casom
+        int position = row;
+        while (position > 0 && compare(secondAt(rowAt(position - 1)), nanoAt(rowAt(position - 1)), second, nano) > 0) {
+            position--;
+        }
+        if (position < row && order == null) {
+            order = new int[seconds.length];
+            for (int i = 0; i < row; i++) {
+                order[i] = i;
+            }
+        }
+        if (order != null) {
+            System.arraycopy(order, position, order, position + 1, row - position);
+            order[position] = row;
+        }
+        size++;
+        return row;
+    }
+
+    //riadok platby, ktora je podla casu na pozicii position
+    int rowAt(int position) {
+        return order == null ? position : order[position];
+    }
+
+    AbstractContract contract() {
+        return contract;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LocalDateTime timeAt(int row) {
+        return LocalDateTime.ofEpochSecond(seconds[row], nanoAt(row), ZoneOffset.UTC);
+    }
+
+    long secondAt(int row) {
+        return seconds[row];
+    }
+
+    int nanoAt(int row) {
+        return nanos == null ? 0 : nanos[row];
+    }
+
+    int amountAt(int row) {
+        return amounts[row];
+    }
+
+    //pozicia (podla casu) prvej platby s casom >= time (binarne vyhladavanie), riadok k nej vrati rowAt
+    int lowerBound(LocalDateTime time) {
+        return lowerBound(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+    }
+
+    int lowerBound(long second, int nano) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int row = rowAt(middle);
+            if (compare(seconds[row], nanoAt(row), second, nano) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    //pohlad na platby ako mnozina PaymentInstance - objekty sa vytvaraju az pri prechadzani;
+    //kazda platba je samostatny prvok aj pri rovnakom case a sume (PaymentInstance.equals porovnava riadok)
+    Set<PaymentInstance> asSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<PaymentInstance> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public PaymentInstance next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int row = rowAt(next);
+                        PaymentInstance instance = new PaymentInstance(timeAt(row), amounts[row],
+                                PaymentColumns.this, row);
+                        next++;
+                        return instance;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = seconds.length * 2;
+        seconds = Arrays.copyOf(seconds, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        if (nanos != null) {
+            nanos = Arrays.copyOf(nanos, capacity);
+        }
+        if (order != null) {
+            order = Arrays.copyOf(order, capacity);
+        }
+    }
+
+    static int compare(long secondA, int nanoA, long secondB, int nanoB) {
+        int result = Long.compare(secondA, secondB);
+        return result != 0 ? result : Integer.compare(nanoA, nanoB);
+    }
+}
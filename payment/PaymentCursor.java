@@ -0,0 +1,97 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+//prechadza platby z obdobia po strankach - stranka sa skopiruje z casoveho indexu pod jeho zamkami
+//a dalej sa cita bez zamku; kurzor si pamata cas poslednej platby a kolko platieb s tym casom uz presiel
+//v kazdom pruhu indexu; platby s rovnakym casom sa v pruhu zaraduju za existujuce, takze nova platba
+//sa nepreskoci ani nezopakuje;
+//platba zaplatena so starsim casom, ako kurzor uz presiel, sa v tomto prechode neobjavi
+public class PaymentCursor {
+    private static final int PAGE = 4096;
+
+    private final PaymentTimeIndex index;
+    private final long toSecond;
+    private final int toNano;
+    private final AbstractContract[] contracts;
+    private final int[] rows;
+    private final long[] seconds;
+    private final int[] nanos;
+    private final int[] amounts;
+    private long second; //cas, od ktoreho sa kopiruje dalsia stranka
+    private int nano;
+    private final int[] skip; //pocet uz skopirovanych platieb s casom (second, nano) v kazdom pruhu indexu
+    private int size;
+    private int position;
+    private boolean exhausted;
+
+    //Konštruktor:
+    PaymentCursor(PaymentTimeIndex index, LocalDateTime from, LocalDateTime to) {
+        this.index = index;
+        this.toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        this.toNano = to.getNano();
+        this.contracts = new AbstractContract[PAGE];
+        this.rows = new int[PAGE];
+        this.seconds = new long[PAGE];
+        this.nanos = new int[PAGE];
+        this.amounts = new int[PAGE];
+        this.second = from.toEpochSecond(ZoneOffset.UTC);
+        this.nano = from.getNano();
+        this.skip = new int[PaymentTimeIndex.STRIPES];
+        this.size = 0;
+        this.position = -1;
+        this.exhausted = false;
+    }
+
+    //posunie sa na dalsiu platbu, false ak uz ziadna nie je
+    public boolean next() {
+        if (position + 1 < size) {
+            position++;
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        size = index.copy(second, nano, skip, toSecond, toNano, contracts, rows, seconds, nanos, amounts);
+        for (int i = size; i < PAGE && contracts[i] != null; i++) {
+            contracts[i] = null; //neblokovat GC zmluvami z predoslej stranky
+        }
+        exhausted = size < PAGE;
+        if (size == 0) {
+            return false;
+        }
+        //novy zaciatok je cas poslednej platby stranky, pocty platieb s tymto casom uz doplnil index do skip
+        second = seconds[size - 1];
+        nano = nanos[size - 1];
+        position = 0;
+        return true;
+    }
+
+    public AbstractContract getContract() {
+        return contracts[position];
+    }
+
+    //poradove cislo platby v ramci zmluvy (v poradi zaplatenia, od 0) - platby zmluvy su cisla 0..getPaymentCount-1
+    public int getSequence() {
+        return rows[position];
+    }
+
+    public long getEpochSecond() {
+        return seconds[position];
+    }
+
+    public int getNano() {
+        return nanos[position];
+    }
+
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofEpochSecond(seconds[position], nanos[position], ZoneOffset.UTC);
+    }
+
+    public int getAmount() {
+        return amounts[position];
+    }
+}
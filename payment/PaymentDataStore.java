@@ -0,0 +1,564 @@
+package payment;
+
+import company.BillingSummary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+//platobne udaje vsetkych zmlov po stlpcoch - kazdy udaj ma svoje primitivne pole, zmluva je cislo riadku (handle)
+//ContractPaymentData je len pohlad na jeden riadok, takze zauctovanie a vykazy idu cez polia bez LocalDateTime a enumov
+//polia su po strankach, ktore sa po vytvoreni uz nepresuvaju - zapis do riadku sa pri raste skladu nestrati
+//stranky mozu byt na halde (polia), alebo mimo haldy (priamy ByteBuffer) - pri desiatkach milionov zmlov
+//potom GC pri zauctovani nemusi prechadzat platobne udaje
+public class PaymentDataStore {
+    private static final int DEFAULT_PAGE_SIZE = 4096;
+    private static final int DEFAULT_OFF_HEAP_PAGE_SIZE = 1 << 16; //1,5 MB na stranku
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private final int pageSize;
+    private final boolean offHeap;
+    private volatile Page[] pages;
+    private volatile int size;
+
+    //Konštruktor:
+    public PaymentDataStore() {
+        this(false);
+    }
+
+    public PaymentDataStore(boolean offHeap) {
+        this(offHeap ? DEFAULT_OFF_HEAP_PAGE_SIZE : DEFAULT_PAGE_SIZE, offHeap);
+    }
+
+    private PaymentDataStore(int pageSize, boolean offHeap) {
+        this.pageSize = pageSize;
+        this.offHeap = offHeap;
+        this.pages = new Page[0];
+        this.size = 0;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    //prida riadok a vrati pohlad nan
+    public ContractPaymentData add(int premium, PremiumPaymentFrequency premiumPaymentFrequency,
+                                   LocalDateTime nextPaymentTime, int outstandingBalance) {
+        return new ContractPaymentData(this, premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
+    }
+
+    //volane z konstruktora ContractPaymentData, az ked su hodnoty overene
+    synchronized int allocate() {
+        int handle = size;
+        if (handle / pageSize == pages.length) {
+            Page[] grown = new Page[pages.length + 1];
+            System.arraycopy(pages, 0, grown, 0, pages.length);
+            grown[pages.length] = offHeap ? new DirectPage(pageSize) : new HeapPage(pageSize);
+            pages = grown;
+        }
+        size = handle + 1;
+        return handle;
+    }
+
+    //vrati posledny riadok, ak zmluva, pre ktoru vznikol, nakoniec neprejde kontrolami
+    //riadky pribudaju len pod zapisovym zamkom poistovne, takze je to vzdy posledny pridany riadok
+    public synchronized void removeLast(ContractPaymentData data) {
+        if (data == null || data.getHandle() != size - 1 || page(data.getHandle()) != data.page()) {
+            throw new IllegalArgumentException("Vrátiť sa dá len posledný riadok skladu.");
+        }
+        page(size - 1).active(row(size - 1), false);
+        size--;
+    }
+
+    //samostatne ContractPaymentData (mimo skladu) - jeden riadok v obycajnych poliach objektu
+    static Page singleRow() {
+        return new SingleRowPage();
+    }
+
+    Page page(int handle) {
+        return pages[handle / pageSize];
+    }
+
+    int row(int handle) {
+        return handle % pageSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ContractPaymentData get(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IllegalArgumentException("Neplatný handle.");
+        }
+        return new ContractPaymentData(this, handle);
+    }
+
+    //sucet nedoplatkov vsetkych riadkov (zaporny, ak prevazuju preplatky)
+    public long getTotalOutstandingBalance() {
+        int count = size;
+        Page[] current = pages;
+        long total = 0;
+        for (int p = 0; p * pageSize < count; p++) {
+            total += current[p].sumOutstandingBalance(Math.min(pageSize, count - p * pageSize));
+        }
+        return total;
+    }
+
+    //pocet riadkov aktivnych zmlov, ktorych najblizsia splatnost uz nastala
+    public int countDue(LocalDateTime currentTime) {
+        if (currentTime == null) {
+            throw new IllegalArgumentException("Čas currentTime nesmie byť null.");
+        }
+        int currentMonth = ContractPaymentData.epochMonth(currentTime);
+        int currentDay = currentTime.getDayOfMonth();
+        long currentNano = currentTime.toLocalTime().toNanoOfDay();
+        int count = size;
+        Page[] current = pages;
+        int due = 0;
+        for (int p = 0; p * pageSize < count; p++) {
+            due += current[p].countDue(Math.min(pageSize, count - p * pageSize), currentMonth, currentDay, currentNano);
+        }
+        return due;
+    }
+
+    //zauctuje poistne vsetkym aktivnym riadkom, ktorym nastala splatnost - stranku po stranke nad stlpcami,
+    //bez objektov zmlov; riadok sa zauctuje rovnako ako ContractPaymentData.chargeDuePremiums
+    //sklad nema zamky zmlov, takze volajuci musi zarucit, ze sa riadky medzitym nemenia (napr. sklad bez poistovne);
+    //poistovna uctuje cez zmluvy, lebo o tom, ci sa zmluve uctuje, rozhoduje jej zaradenie v poistovni
+    public BillingSummary chargeDue(LocalDateTime currentTime) {
+        if (currentTime == null) {
+            throw new IllegalArgumentException("Čas currentTime nesmie byť null.");
+        }
+        int currentMonth = ContractPaymentData.epochMonth(currentTime);
+        int currentDay = currentTime.getDayOfMonth();
+        long currentNano = currentTime.toLocalTime().toNanoOfDay();
+        int count = size;
+        Page[] current = pages;
+        BillingSummary summary = new BillingSummary(0, 0);
+        for (int p = 0; p * pageSize < count; p++) {
+            summary = summary.combine(current[p].chargeDue(Math.min(pageSize, count - p * pageSize),
+                    currentMonth, currentDay, currentNano));
+        }
+        return summary;
+    }
+
+    //jedna stranka riadkov; splatnost je rozlozena na mesiac od roku 0, den v mesiaci a cas dna
+    abstract static class Page {
+        abstract int premium(int row);
+
+        abstract void premium(int row, int premium);
+
+        abstract int frequency(int row); //ordinal PremiumPaymentFrequency
+
+        abstract void frequency(int row, int frequency);
+
+        abstract int dueMonth(int row);
+
+        abstract void dueMonth(int row, int month);
+
+        abstract int dueDay(int row);
+
+        abstract void dueDay(int row, int day);
+
+        abstract long dueNano(int row);
+
+        abstract void dueNano(int row, long nano);
+
+        abstract int outstandingBalance(int row);
+
+        abstract void outstandingBalance(int row, int balance);
+
+        abstract boolean active(int row);
+
+        abstract void active(int row, boolean active);
+
+        long sumOutstandingBalance(int rows) {
+            long total = 0;
+            for (int i = 0; i < rows; i++) {
+                total += outstandingBalance(i);
+            }
+            return total;
+        }
+
+        int countDue(int rows, int currentMonth, int currentDay, long currentNano) {
+            int due = 0;
+            for (int i = 0; i < rows; i++) {
+                if (active(i) && isDue(i, currentMonth, currentDay, currentNano)) {
+                    due++;
+                }
+            }
+            return due;
+        }
+
+        BillingSummary chargeDue(int rows, int currentMonth, int currentDay, long currentNano) {
+            int charged = 0;
+            long accrued = 0;
+            for (int i = 0; i < rows; i++) {
+                if (active(i) && isDue(i, currentMonth, currentDay, currentNano)) {
+                    charged++;
+                    accrued += (long) chargeRow(i, currentMonth, currentDay, currentNano) * premium(i);
+                }
+            }
+            return new BillingSummary(charged, accrued);
+        }
+
+        //zauctuje vsetky splatne obdobia riadku naraz a vrati ich pocet
+        //vysledok je rovnaky ako opakovane pripocitanie premium a posun splatnosti (advanceDue)
+        int chargeRow(int row, int currentMonth, int currentDay, long currentNano) {
+            int mesiace = FREQUENCIES[frequency(row)].getValueInMonths();
+            int premium = premium(row);
+            int periods = 0;
+
+            //kym sa moze den v mesiaci este skratit (napr. 31.1. -> 28.2. -> 28.3.), ideme po jednom obdobi,
+            //lebo plusMonths po krokoch dava iny datum ako jedno plusMonths o cely pocet mesiacov
+            while (isDue(row, currentMonth, currentDay, currentNano) && !isDayOfMonthStable(row, mesiace)) {
+                outstandingBalance(row, outstandingBalance(row) + premium);
+                advanceDue(row, mesiace);
+                periods++;
+            }
+            if (!isDue(row, currentMonth, currentDay, currentNano)) {
+                return periods;
+            }
+
+            //den sa uz nemeni, takze pocet splatnych obdobi sa da vyratat z rozdielu mesiacov
+            int due = (currentMonth - dueMonth(row)) / mesiace;
+            dueMonth(row, dueMonth(row) + due * mesiace); //posledny termin najneskor v mesiaci currentTime
+            if (isDue(row, currentMonth, currentDay, currentNano)) {
+                due++; //aj tento termin uz nastal
+                dueMonth(row, dueMonth(row) + mesiace);
+            }
+
+            outstandingBalance(row, outstandingBalance(row) + due * premium);
+            return periods + due;
+        }
+
+        //rovnako ako LocalDateTime.plusMonths - den sa skrati na dlzku noveho mesiaca
+        void advanceDue(int row, int mesiace) {
+            int month = dueMonth(row) + mesiace;
+            dueMonth(row, month);
+            dueDay(row, Math.min(dueDay(row), lengthOfMonth(month)));
+        }
+
+        //splatnost uz nastala (nie je po currentTime)
+        boolean isDue(int row, int currentMonth, int currentDay, long currentNano) {
+            int month = dueMonth(row);
+            if (month != currentMonth) {
+                return month < currentMonth;
+            }
+            int day = dueDay(row);
+            if (day != currentDay) {
+                return day < currentDay;
+            }
+            return dueNano(row) <= currentNano;
+        }
+
+        //den je stabilny, ak ho ziaden buduci mesiac splatnosti neskrati (februar berieme ako 28 dni)
+        private boolean isDayOfMonthStable(int row, int mesiace) {
+            int day = dueDay(row);
+            if (day <= 28) {
+                return true;
+            }
+            Month month = Month.of(Math.floorMod(dueMonth(row), 12) + 1);
+            for (int i = 1; i <= 12; i++) {
+                if (month.plus((long) i * mesiace).minLength() < day) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int lengthOfMonth(int epochMonth) {
+            Month month = Month.of(Math.floorMod(epochMonth, 12) + 1);
+            return month.length(Year.isLeap(Math.floorDiv(epochMonth, 12)));
+        }
+    }
+
+    //stranka s jedinym riadkom pre samostatne platobne udaje, bez poli
+    private static final class SingleRowPage extends Page {
+        private int premium;
+        private byte frequency;
+        private int dueMonth;
+        private byte dueDay;
+        private long dueNano;
+        private int outstandingBalance;
+        private boolean active;
+
+        @Override
+        int premium(int row) {
+            return premium;
+        }
+
+        @Override
+        void premium(int row, int value) {
+            premium = value;
+        }
+
+        @Override
+        int frequency(int row) {
+            return frequency;
+        }
+
+        @Override
+        void frequency(int row, int value) {
+            frequency = (byte) value;
+        }
+
+        @Override
+        int dueMonth(int row) {
+            return dueMonth;
+        }
+
+        @Override
+        void dueMonth(int row, int value) {
+            dueMonth = value;
+        }
+
+        @Override
+        int dueDay(int row) {
+            return dueDay;
+        }
+
+        @Override
+        void dueDay(int row, int value) {
+            dueDay = (byte) value;
+        }
+
+        @Override
+        long dueNano(int row) {
+            return dueNano;
+        }
+
+        @Override
+        void dueNano(int row, long value) {
+            dueNano = value;
+        }
+
+        @Override
+        int outstandingBalance(int row) {
+            return outstandingBalance;
+        }
+
+        @Override
+        void outstandingBalance(int row, int value) {
+            outstandingBalance = value;
+        }
+
+        @Override
+        boolean active(int row) {
+            return active;
+        }
+
+        @Override
+        void active(int row, boolean value) {
+            active = value;
+        }
+    }
+
+    //stlpce ako primitivne polia na halde
+    private static final class HeapPage extends Page {
+        private final int[] premium;
+        private final byte[] frequency;
+        private final int[] dueMonth;
+        private final byte[] dueDay;
+        private final long[] dueNano;
+        private final int[] outstandingBalance;
+        private final boolean[] active;
+
+        HeapPage(int size) {
+            this.premium = new int[size];
+            this.frequency = new byte[size];
+            this.dueMonth = new int[size];
+            this.dueDay = new byte[size];
+            this.dueNano = new long[size];
+            this.outstandingBalance = new int[size];
+            this.active = new boolean[size];
+        }
+
+        @Override
+        int premium(int row) {
+            return premium[row];
+        }
+
+        @Override
+        void premium(int row, int value) {
+            premium[row] = value;
+        }
+
+        @Override
+        int frequency(int row) {
+            return frequency[row];
+        }
+
+        @Override
+        void frequency(int row, int value) {
+            frequency[row] = (byte) value;
+        }
+
+        @Override
+        int dueMonth(int row) {
+            return dueMonth[row];
+        }
+
+        @Override
+        void dueMonth(int row, int value) {
+            dueMonth[row] = value;
+        }
+
+        @Override
+        int dueDay(int row) {
+            return dueDay[row];
+        }
+
+        @Override
+        void dueDay(int row, int value) {
+            dueDay[row] = (byte) value;
+        }
+
+        @Override
+        long dueNano(int row) {
+            return dueNano[row];
+        }
+
+        @Override
+        void dueNano(int row, long value) {
+            dueNano[row] = value;
+        }
+
+        @Override
+        int outstandingBalance(int row) {
+            return outstandingBalance[row];
+        }
+
+        @Override
+        void outstandingBalance(int row, int value) {
+            outstandingBalance[row] = value;
+        }
+
+        @Override
+        boolean active(int row) {
+            return active[row];
+        }
+
+        @Override
+        void active(int row, boolean value) {
+            active[row] = value;
+        }
+
+        @Override
+        long sumOutstandingBalance(int rows) {
+            long total = 0;
+            for (int i = 0; i < rows; i++) {
+                total += outstandingBalance[i];
+            }
+            return total;
+        }
+
+        //splatnost sa hlada priamo v poliach, cez pristupove metody ide len zauctovanie splatnych riadkov
+        @Override
+        BillingSummary chargeDue(int rows, int currentMonth, int currentDay, long currentNano) {
+            int charged = 0;
+            long accrued = 0;
+            for (int i = 0; i < rows; i++) {
+                int month = dueMonth[i];
+                if (active[i] && (month < currentMonth || (month == currentMonth && (dueDay[i] < currentDay
+                        || (dueDay[i] == currentDay && dueNano[i] <= currentNano))))) {
+                    charged++;
+                    accrued += (long) chargeRow(i, currentMonth, currentDay, currentNano) * premium[i];
+                }
+            }
+            return new BillingSummary(charged, accrued);
+        }
+    }
+
+    //riadky pevnej dlzky v priamom ByteBuffri mimo haldy (absolutne get/put nemenia poziciu, takze su bezpecne
+    //pri sucasnom pristupe k roznym riadkom); pamat sa uvolni, ked GC zozbiera sklad
+    private static final class DirectPage extends Page {
+        private static final int PREMIUM = 0;
+        private static final int DUE_MONTH = 4;
+        private static final int BALANCE = 8;
+        private static final int FREQUENCY = 12;
+        private static final int DUE_DAY = 13;
+        private static final int ACTIVE = 14;
+        private static final int DUE_NANO = 16; //zarovnane na 8
+        private static final int RECORD = 24;
+
+        private final ByteBuffer buffer;
+
+        DirectPage(int size) {
+            this.buffer = ByteBuffer.allocateDirect(size * RECORD).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        int premium(int row) {
+            return buffer.getInt(row * RECORD + PREMIUM);
+        }
+
+        @Override
+        void premium(int row, int value) {
+            buffer.putInt(row * RECORD + PREMIUM, value);
+        }
+
+        @Override
+        int frequency(int row) {
+            return buffer.get(row * RECORD + FREQUENCY);
+        }
+
+        @Override
+        void frequency(int row, int value) {
+            buffer.put(row * RECORD + FREQUENCY, (byte) value);
+        }
+
+        @Override
+        int dueMonth(int row) {
+            return buffer.getInt(row * RECORD + DUE_MONTH);
+        }
+
+        @Override
+        void dueMonth(int row, int value) {
+            buffer.putInt(row * RECORD + DUE_MONTH, value);
+        }
+
+        @Override
+        int dueDay(int row) {
+            return buffer.get(row * RECORD + DUE_DAY);
+        }
+
+        @Override
+        void dueDay(int row, int value) {
+            buffer.put(row * RECORD + DUE_DAY, (byte) value);
+        }
+
+        @Override
+        long dueNano(int row) {
+            return buffer.getLong(row * RECORD + DUE_NANO);
+        }
+
+        @Override
+        void dueNano(int row, long value) {
+            buffer.putLong(row * RECORD + DUE_NANO, value);
+        }
+
+        @Override
+        int outstandingBalance(int row) {
+            return buffer.getInt(row * RECORD + BALANCE);
+        }
+
+        @Override
+        void outstandingBalance(int row, int value) {
+            buffer.putInt(row * RECORD + BALANCE, value);
+        }
+
+        @Override
+        boolean active(int row) {
+            return buffer.get(row * RECORD + ACTIVE) != 0;
+        }
+
+        @Override
+        void active(int row, boolean value) {
+            buffer.put(row * RECORD + ACTIVE, (byte) (value ? 1 : 0));
+        }
+    }
+}
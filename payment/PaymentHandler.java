@@ -1,55 +1,294 @@
 package payment;
 
+import company.ContractLocks;
 import company.InsuranceCompany;
 import contracts.AbstractContract;
 import contracts.MasterVehicleContract;
 import contracts.SingleVehicleContract;
 import contracts.InvalidContractException;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 
 public class PaymentHandler {
-    private final Map<AbstractContract, Set<PaymentInstance>> paymentHistory;
+    //handler vytvoreny mimo poistovne platby nikam nezapisuje
+    private static final PaymentJournal NOT_LOGGED = new PaymentJournal() {
+        @Override
+        public void ensureWritable() {
+        }
+
+        @Override
+        public long paid(LocalDateTime time, AbstractContract contract, int amount) {
+            return -1;
+        }
+
+        @Override
+        public void commit(long position) {
+        }
+    };
+
+    private final PaymentLedger paymentHistory;
     private final InsuranceCompany insurer;
+    private final PaymentJournal journal;
 
     //konštruktor:
+    //platby takehoto handlera sa do logu poistovne nezapisuju, preto pri pripojenom logu nic nezaplati
+    //(prehranie logu by o nich nevedelo) - platit cez insurer.getHandler()
     public PaymentHandler(InsuranceCompany insurer) {
+        this(insurer, NOT_LOGGED);
+    }
+
+    //journal dostava kazdu vykonanu platbu (poistovna ho napoji na svoj log)
+    public PaymentHandler(InsuranceCompany insurer, PaymentJournal journal) {
         if (insurer == null) {
             throw new IllegalArgumentException("Poistovna insurer nesmie byť null.");
         }
+        if (journal == null) {
+            throw new IllegalArgumentException("Zápis platieb journal nesmie byť null.");
+        }
         this.insurer = insurer;
-        this.paymentHistory = new HashMap<>();
+        this.paymentHistory = new PaymentLedger();
+        this.journal = journal;
     }
 
+    //historiu jednej zmluvy mozno pri sucasnych platbach citat len pod zamkom zmluvy (insurer.getLocks())
     public Map<AbstractContract, Set<PaymentInstance>> getPaymentHistory() {
-        return Collections.unmodifiableMap(paymentHistory);
+        return Collections.unmodifiableMap(paymentHistory.asHistory());
+    }
+
+    //historia platieb s dotazmi na obdobie (pre vykazy a odsuhlasovanie platieb)
+    public PaymentLedger getPaymentLedger() {
+        return paymentHistory;
     }
 
     public void pay(AbstractContract contract, int amount) {
         if (contract == null || amount <= 0) {
             throw new IllegalArgumentException("Zmluva nesmie byť null a amount musí byť kladný (nesmie byt nekladny...)");
         }
+        checkJournal();
+        long position;
+        Lock lock = insurer.getLocks().lockFor(contract);
+        lock.lock();
+        try {
+            LocalDateTime time = insurer.getCurrentTime();
+            payLocked(contract, amount, time);
+            position = journal.paid(time, contract, amount);
+        } finally {
+            lock.unlock();
+        }
+        journal.commit(position); //az po uvolneni zamku, aby jeden fsync potvrdil viac platieb
+    }
+
+    public void pay(MasterVehicleContract contract, int amount) {
+        if (contract == null || amount <= 0) {
+            throw new IllegalArgumentException("Zmluva nesmie byť null a amount nesmie byť nekladny.");
+        }
+
+        //citaci zamok drzi flotilu bez presunov, potom zamknem master aj vsetky dcerske zmluvy naraz
+        checkJournal();
+        ContractLocks locks = insurer.getLocks();
+        long position;
+        locks.readLock().lock();
+        try {
+            List<AbstractContract> fleet = new ArrayList<>(contract.getChildContracts().size() + 1);
+            fleet.add(contract);
+            fleet.addAll(contract.getChildContracts());
+            List<Lock> locked = locks.lockAll(fleet);
+            try {
+                LocalDateTime time = insurer.getCurrentTime();
+                payLocked(contract, amount, time);
+                position = journal.paid(time, contract, amount);
+            } finally {
+                locks.unlockAll(locked);
+            }
+        } finally {
+            locks.readLock().unlock();
+        }
+        journal.commit(position);
+    }
+
+    //hromadna platba (bankovy vypis): vysledok pre kazdu polozku na rovnakej pozicii ako vo vstupe
+    //stav je rovnaky ako po postupnom volani pay (master zmluva plati cez svoju verziu aj ked je v polozke
+    //ako AbstractContract):
+    //- master zmluvy z davky a ich dcerske zmluvy sa zamknu naraz a ich polozky idu v poradi zo vstupu,
+    //  lebo rozdelenie platby master zmluvy zavisi od nedoplatkov dcerskych zmluv
+    //- ostatne polozky sa zoskupia podla zmluvy a kazda zmluva sa zamkne a zapise do historie len raz
+    //citaci zamok drzi flotily bez presunov pocas celej davky
+    //do logu ide zaznam za kazdu platbu, na zapis na disk sa caka raz za celu davku
+    public List<PaymentStatus> payAll(List<PaymentOrder> orders) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Zoznam platieb orders nesmie byť null.");
+        }
+        int count = orders.size();
+        PaymentStatus[] results = new PaymentStatus[count];
+        for (int i = 0; i < count; i++) {
+            PaymentOrder order = orders.get(i);
+            if (order == null || order.getContract() == null || order.getAmount() <= 0) {
+                results[i] = PaymentStatus.INVALID_PAYMENT;
+            }
+        }
+
+        checkJournal();
+        ContractLocks locks = insurer.getLocks();
+        long position = -1;
+        locks.readLock().lock();
+        try {
+            //flotily master zmlov z davky
+            Set<AbstractContract> fleets = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (results[i] == null && orders.get(i).getContract() instanceof MasterVehicleContract master
+                        && fleets.add(master)) {
+                    fleets.addAll(master.getChildContracts());
+                }
+            }
+            if (!fleets.isEmpty()) {
+                position = payFleets(orders, results, fleets);
+            }
+            position = Math.max(position, payGroups(orders, results));
+        } finally {
+            locks.readLock().unlock();
+            journal.commit(position); //az po uvolneni zamkov
+        }
+        return Arrays.asList(results);
+    }
+
+    //polozky zmlov z flotil v poradi zo vstupu pod jednym zamknutim vsetkych flotil
+    private long payFleets(List<PaymentOrder> orders, PaymentStatus[] results, Set<AbstractContract> fleets) {
+        long position = -1;
+        ContractLocks locks = insurer.getLocks();
+        List<Lock> locked = locks.lockAll(fleets);
+        try {
+            LocalDateTime time = insurer.getCurrentTime();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null || !fleets.contains(orders.get(i).getContract())) {
+                    continue;
+                }
+                AbstractContract contract = orders.get(i).getContract();
+                int amount = orders.get(i).getAmount();
+                try {
+                    if (contract instanceof MasterVehicleContract master) {
+                        payLocked(master, amount, time);
+                    } else {
+                        payLocked(contract, amount, time);
+                    }
+                    position = journal.paid(time, contract, amount);
+                    results[i] = PaymentStatus.PAID;
+                } catch (InvalidContractException e) {
+                    results[i] = PaymentStatus.INVALID_CONTRACT;
+                }
+            }
+        } finally {
+            locks.unlockAll(locked);
+        }
+        return position;
+    }
+
+    //zvysne polozky zoskupene podla zmluvy (v poradi prveho vyskytu), polozky jednej zmluvy v poradi zo vstupu
+    private long payGroups(List<PaymentOrder> orders, PaymentStatus[] results) {
+        int count = results.length;
+        Map<AbstractContract, Integer> groupIds = new HashMap<>();
+        List<AbstractContract> groups = new ArrayList<>();
+        int[] groupOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (results[i] != null) {
+                groupOf[i] = -1;
+                continue;
+            }
+            AbstractContract contract = orders.get(i).getContract();
+            Integer id = groupIds.putIfAbsent(contract, groups.size());
+            if (id == null) {
+                id = groups.size();
+                groups.add(contract);
+            }
+            groupOf[i] = id;
+        }
+
+        //polozky zoradene podla skupin (stabilne) - skupina g je na poziciach [offsets[g], offsets[g + 1])
+        int[] offsets = new int[groups.size() + 1];
+        for (int i = 0; i < count; i++) {
+            if (groupOf[i] >= 0) {
+                offsets[groupOf[i] + 1]++;
+            }
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            offsets[g + 1] += offsets[g];
+        }
+        int[] items = new int[offsets[groups.size()]];
+        int[] amounts = new int[items.length];
+        int[] next = Arrays.copyOf(offsets, groups.size());
+        for (int i = 0; i < count; i++) {
+            if (groupOf[i] >= 0) {
+                int slot = next[groupOf[i]]++;
+                items[slot] = i;
+                amounts[slot] = orders.get(i).getAmount();
+            }
+        }
+
+        long position = -1;
+        for (int g = 0; g < groups.size(); g++) {
+            PaymentStatus status = PaymentStatus.PAID;
+            try {
+                position = Math.max(position, payGroup(groups.get(g), amounts, offsets[g], offsets[g + 1]));
+            } catch (InvalidContractException e) {
+                status = PaymentStatus.INVALID_CONTRACT;
+            }
+            for (int slot = offsets[g]; slot < offsets[g + 1]; slot++) {
+                results[items[slot]] = status;
+            }
+        }
+        return position;
+    }
+
+    //platby amounts[from..to) na jednu zmluvu pod jednym zamknutim, vrati poziciu posledneho zaznamu v logu
+    private long payGroup(AbstractContract contract, int[] amounts, int from, int to) {
+        long position = -1;
+        Lock lock = insurer.getLocks().lockFor(contract);
+        lock.lock();
+        try {
+            checkContract(contract);
+            //postupne platby len znizuju nedoplatok, staci ho znizit raz o sucet
+            int paid = 0;
+            for (int i = from; i < to; i++) {
+                paid += amounts[i];
+            }
+            ContractPaymentData data = contract.getContractPaymentData();
+            data.setOutstandingBalance(data.getOutstandingBalance() - paid);
+
+            LocalDateTime time = insurer.getCurrentTime();
+            paymentHistory.recordAll(contract, time, amounts, from, to);
+            for (int i = from; i < to; i++) {
+                position = journal.paid(time, contract, amounts[i]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return position;
+    }
+
+    private void checkJournal() {
+        if (journal == NOT_LOGGED && insurer.getCommandLog() != null) {
+            throw new IllegalStateException("Poisťovňa má pripojený log - platiť treba cez jej PaymentHandler.");
+        }
+        journal.ensureWritable();
+    }
+
+    private void checkContract(AbstractContract contract) {
         if (!contract.isActive() || !contract.getInsurer().equals(insurer)) {
             throw new InvalidContractException("Neplatná zmluva.");
         }
+    }
+
+    private void payLocked(AbstractContract contract, int amount, LocalDateTime time) {
+        checkContract(contract);
         //znizim outstandingBalance o amount
         int newBalance = contract.getContractPaymentData().getOutstandingBalance() - amount;
         contract.getContractPaymentData().setOutstandingBalance(newBalance);
 
-        //
-        PaymentInstance instance = new PaymentInstance(insurer.getCurrentTime(), amount);
-        Set<PaymentInstance> payments = paymentHistory.get(contract);
-        if (payments == null) {
-            payments = new TreeSet<>();
-            paymentHistory.put(contract, payments);
-        }
-        payments.add(instance);
-
+        //zapisem platbu do historie (aj dve platby v rovnakom case su dve platby)
+        paymentHistory.record(contract, time, amount);
     }
 
-    public void pay(MasterVehicleContract contract, int amount) {
-        if (contract == null || amount <= 0) {
-            throw new IllegalArgumentException("Zmluva nesmie byť null a amount nesmie byť nekladny.");
-        }
+    private void payLocked(MasterVehicleContract contract, int amount, LocalDateTime time) {
         if (!contract.isActive() || !contract.getInsurer().equals(insurer) || contract.getChildContracts().isEmpty()) {
             throw new contracts.InvalidContractException("Neplatná zmluva.");
         }
@@ -76,35 +315,39 @@ public class PaymentHandler {
         }
 
         //vytvorenie preplatku
-        while (amount > 0) {
-            boolean somethingPaid = false;
+        //povodne sa chodilo dookola po jednom poistnom; kazde kolo zaplati kazdej aktivnej zmluve
+        //jej poistne, takze pocet celych kol sa da vyratat naraz a zvysok sa rozdeli v poslednom kole
+        if (amount > 0) {
+            long premiumsPerRound = 0;
             for (SingleVehicleContract c : childContracts) {
-                if (!c.isActive()) continue;
-                int premium = c.getContractPaymentData().getPremium();
-                if (amount >= premium) {
-                    c.getContractPaymentData().setOutstandingBalance(
-                            c.getContractPaymentData().getOutstandingBalance() - premium
-                    );
-                    amount -= premium;
-                    usedAmount += premium;
-                    somethingPaid = true;
-                } else {
+                if (c.isActive()) {
+                    premiumsPerRound += c.getContractPaymentData().getPremium();
+                }
+            }
+
+            if (premiumsPerRound > 0) {
+                int fullRounds = (int) (amount / premiumsPerRound);
+                int remainder = (int) (amount - fullRounds * premiumsPerRound);
+
+                for (SingleVehicleContract c : childContracts) {
+                    if (!c.isActive()) continue;
+                    int premium = c.getContractPaymentData().getPremium();
+                    //cele kola + v poslednom kole poistne, alebo to co zostalo
+                    int paid = fullRounds * premium + Math.min(premium, remainder);
+                    remainder -= Math.min(premium, remainder);
                     c.getContractPaymentData().setOutstandingBalance(
-                            c.getContractPaymentData().getOutstandingBalance() - amount
+                            c.getContractPaymentData().getOutstandingBalance() - paid
                     );
-                    usedAmount += amount;
-                    amount = 0;
-                    somethingPaid = true;
-                    break;
                 }
+
+                usedAmount += amount;
+                amount = 0;
             }
-            if (!somethingPaid) break;
         }
 
         // len ak sa niečo reálne zaplatilo
         if (usedAmount > 0) {
-            PaymentInstance instance = new PaymentInstance(insurer.getCurrentTime(), usedAmount);
-            paymentHistory.computeIfAbsent(contract, k -> new TreeSet<>()).add(instance);
+            paymentHistory.record(contract, time, usedAmount);
         }
     }
 }
@@ -5,9 +5,16 @@ import java.time.LocalDateTime;
 public class PaymentInstance implements Comparable<PaymentInstance> {
     private final LocalDateTime paymentTime;
     private final int paymentAmount;
+    private final PaymentColumns columns; //stlpce zmluvy, v ktorych je platba ulozena; null mimo historie
+    private final int row;
 
     //Konštruktor:
     public PaymentInstance(LocalDateTime paymentTime, int paymentAmount) {
+        this(paymentTime, paymentAmount, null, -1);
+    }
+
+    //Konštruktor: platba z historie - riadok v stlpcoch zmluvy je jej stale cislo
+    PaymentInstance(LocalDateTime paymentTime, int paymentAmount, PaymentColumns columns, int row) {
         if (paymentTime == null) {
             throw new IllegalArgumentException("Čas platby paymentTime nesmie byť null.");
         }
@@ -16,6 +23,8 @@ public class PaymentInstance implements Comparable<PaymentInstance> {
         }
         this.paymentTime = paymentTime;
         this.paymentAmount = paymentAmount;
+        this.columns = columns;
+        this.row = row;
     }
 
     public LocalDateTime getPaymentTime() {
@@ -30,4 +39,20 @@ public class PaymentInstance implements Comparable<PaymentInstance> {
     public int compareTo(PaymentInstance other) {
         return this.paymentTime.compareTo(other.paymentTime);
     }
+
+    //rovnaka je len ta ista platba: objekty z historie sa vytvaraju pri kazdom citani, preto sa porovnavaju
+    //podla miesta ulozenia; dve platby s rovnakym casom aj sumou su stale dve platby (mnozina historie ich ma obe)
+    //platba vytvorena mimo historie sa rovna len sama sebe; compareTo porovnava len cas, kvoli zoradeniu
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return columns != null && o instanceof PaymentInstance other && columns == other.columns && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return columns == null ? System.identityHashCode(this) : 31 * System.identityHashCode(columns) + row;
+    }
 }
@@ -0,0 +1,17 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+
+//zapis vykonanych platieb - poistovna cez neho napoji PaymentHandler na svoj log (CommandLog)
+//paid sa vola pod zamkom zmluvy hned po zmene stavu a vrati poziciu zaznamu (-1 ak sa nezapisuje),
+//commit az po uvolneni zamkov, aby jeden zapis na disk potvrdil viac platieb
+//ensureWritable sa vola pred platbou - ak zapis nie je mozny, platba sa odmietne skor, nez zmeni stav
+public interface PaymentJournal {
+    void ensureWritable();
+
+    long paid(LocalDateTime time, AbstractContract contract, int amount);
+
+    void commit(long position);
+}
@@ -0,0 +1,167 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//historia platieb vsetkych zmlov - len sa do nej pridava, nic sa nemaze
+//namiesto TreeSet<PaymentInstance> na zmluvu drzi platby v primitivnych poliach (PaymentColumns)
+//a popri tom casovy index platieb celej poistovne pre vykazy za obdobie
+//obdobia su vzdy polootvorene [from, to) - denny vykaz je od polnoci do dalsej polnoci
+public class PaymentLedger {
+    private final Map<AbstractContract, PaymentColumns> payments;
+    private final PaymentTimeIndex timeIndex;
+    private final Map<AbstractContract, Set<PaymentInstance>> historyView;
+
+    //Konštruktor:
+    public PaymentLedger() {
+        this.payments = new ConcurrentHashMap<>();
+        this.timeIndex = new PaymentTimeIndex();
+        this.historyView = new HistoryView();
+    }
+
+    //zapise platbu; platby jednej zmluvy sa nesmu zapisovat z viacerych vlakien naraz (chrani to zamok zmluvy)
+    public void record(AbstractContract contract, LocalDateTime time, int amount) {
+        if (contract == null || time == null) {
+            throw new IllegalArgumentException("Zmluva ani čas platby nesmú byť null.");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Výška platby musí byť kladná.");
+        }
+        timeIndex.add(payments.computeIfAbsent(contract, PaymentColumns::new), time, amount);
+    }
+
+    //platby amounts[from..to) jednej zmluvy z hromadnej platby (uz skontrolovane) - zmluva sa v mape hlada len raz
+    void recordAll(AbstractContract contract, LocalDateTime time, int[] amounts, int from, int to) {
+        timeIndex.addAll(payments.computeIfAbsent(contract, PaymentColumns::new), time, amounts, from, to);
+    }
+
+    //platby zmluvy z obdobia [from, to) zoradene podla casu
+    public List<PaymentInstance> getPayments(AbstractContract contract, LocalDateTime from, LocalDateTime to) {
+        checkPeriod(contract, from, to);
+        List<PaymentInstance> result = new ArrayList<>();
+        PaymentColumns columns = payments.get(contract);
+        if (columns != null) {
+            int end = columns.lowerBound(to);
+            for (int i = columns.lowerBound(from); i < end; i++) {
+                int row = columns.rowAt(i);
+                result.add(new PaymentInstance(columns.timeAt(row), columns.amountAt(row), columns, row));
+            }
+        }
+        return result;
+    }
+
+    public long getTotalPaid(AbstractContract contract, LocalDateTime from, LocalDateTime to) {
+        checkPeriod(contract, from, to);
+        long total = 0;
+        PaymentColumns columns = payments.get(contract);
+        if (columns != null) {
+            int end = columns.lowerBound(to);
+            for (int i = columns.lowerBound(from); i < end; i++) {
+                total += columns.amountAt(columns.rowAt(i));
+            }
+        }
+        return total;
+    }
+
+    //prejde platby vsetkych zmlov z obdobia [from, to) v poradi podla casu
+    public void forEachPayment(LocalDateTime from, LocalDateTime to, PaymentVisitor visitor) {
+        checkPeriod(from, to);
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor nesmie byť null.");
+        }
+        timeIndex.forEach(from, to, visitor);
+    }
+
+    //kurzor cez platby vsetkych zmlov z obdobia [from, to) v poradi podla casu - na rozdiel od forEachPayment
+    //drzi zamok indexu len pocas kopirovania jednej stranky, takze pri prechadzani celej historie
+    //sa dalej zapisuju nove platby
+    public PaymentCursor cursor(LocalDateTime from, LocalDateTime to) {
+        checkPeriod(from, to);
+        return new PaymentCursor(timeIndex, from, to);
+    }
+
+    public long getTotalPaid(LocalDateTime from, LocalDateTime to) {
+        checkPeriod(from, to);
+        return timeIndex.sum(from, to);
+    }
+
+    private static void checkPeriod(AbstractContract contract, LocalDateTime from, LocalDateTime to) {
+        if (contract == null) {
+            throw new IllegalArgumentException("Zmluva nesmie byť null.");
+        }
+        checkPeriod(from, to);
+    }
+
+    private static void checkPeriod(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Začiatok ani koniec obdobia nesmú byť null.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Začiatok obdobia musí byť pred jeho koncom.");
+        }
+    }
+
+    public int getPaymentCount(AbstractContract contract) {
+        PaymentColumns contractPayments = payments.get(contract);
+        return contractPayments == null ? 0 : contractPayments.size();
+    }
+
+    //pohlad v povodnom tvare zmluva -> platby zoradene podla casu (len na citanie, zivy)
+    public Map<AbstractContract, Set<PaymentInstance>> asHistory() {
+        return historyView;
+    }
+
+    private class HistoryView extends AbstractMap<AbstractContract, Set<PaymentInstance>> {
+        @Override
+        public Set<PaymentInstance> get(Object key) {
+            PaymentColumns contractPayments = payments.get(key);
+            return contractPayments == null ? null : contractPayments.asSet();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return payments.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return payments.size();
+        }
+
+        @Override
+        public Set<Entry<AbstractContract, Set<PaymentInstance>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<AbstractContract, Set<PaymentInstance>>> iterator() {
+                    Iterator<Entry<AbstractContract, PaymentColumns>> it = payments.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<AbstractContract, Set<PaymentInstance>> next() {
+                            Entry<AbstractContract, PaymentColumns> entry = it.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().asSet());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return payments.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package payment;
+
+import contracts.AbstractContract;
+
+//jedna polozka hromadnej platby (riadok bankoveho vypisu); kontroluje sa az v PaymentHandler.payAll,
+//aby chybna polozka odmietla len samu seba a nie cely vypis
+public class PaymentOrder {
+    private final AbstractContract contract;
+    private final int amount;
+
+    //Konštruktor:
+    public PaymentOrder(AbstractContract contract, int amount) {
+        this.contract = contract;
+        this.amount = amount;
+    }
+
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,8 @@
+package payment;
+
+//vysledok jednej polozky hromadnej platby
+public enum PaymentStatus {
+    PAID,
+    INVALID_PAYMENT, //zmluva je null alebo suma nie je kladna
+    INVALID_CONTRACT //zmluva nie je aktivna, patri inej poistovni, alebo master zmluva nema dcerske zmluvy
+}
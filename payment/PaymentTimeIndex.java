@@ -0,0 +1,309 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+//casovy index platieb celej poistovne - platby su rozdelene po dnoch, v ramci dna zoradene podla casu
+//platby su ulozene len raz, v stlpcoch zmluvy; den drzi len odkazy (stlpce zmluvy + riadok), teda 8 B na platbu
+//riadok platby v stlpcoch sa nemeni ani pri platbe so starsim casom, takze odkazy v dnoch sa nikdy neposuvaju
+//
+//index je rozdeleny na pruhy podla zmluvy, kazdy pruh ma vlastne dni a vlastny zamok - platby roznych zmlov
+//sa zapisuju subezne; stlpce zmluvy sa menia len pod zamkom jej pruhu, aby ich index necital pocas zmeny
+//dotaz na obdobie prejde len dni z toho obdobia a v krajnych dnoch najde hranice binarnym vyhladavanim;
+//dotazy v poradi podla casu zlucuju pruhy pod zamkami vsetkych pruhov, pri rovnakom case ide skor nizsi pruh
+class PaymentTimeIndex {
+    static final int STRIPES = 16;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Stripe[] stripes;
+
+    //Konštruktor:
+    PaymentTimeIndex() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    void add(PaymentColumns columns, LocalDateTime time, int amount) {
+        long epochDay = epochDay(time);
+        Stripe stripe = stripeFor(columns);
+        stripe.lock.lock();
+        try {
+            stripe.day(epochDay).add(columns, columns.add(time, amount));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    //platby jednej zmluvy s rovnakym casom naraz - jedno zamknutie a jedno hladanie dna
+    void addAll(PaymentColumns columns, LocalDateTime time, int[] amounts, int from, int to) {
+        long epochDay = epochDay(time);
+        Stripe stripe = stripeFor(columns);
+        stripe.lock.lock();
+        try {
+            DayPayments day = stripe.day(epochDay);
+            for (int i = from; i < to; i++) {
+                day.add(columns, columns.add(time, amounts[i]));
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    //prejde platby z obdobia [from, to) v poradi podla casu; drzi zamky vsetkych pruhov, visitor nesmie zapisovat platby
+    void forEach(LocalDateTime from, LocalDateTime to, PaymentVisitor visitor) {
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        lockAll();
+        try {
+            Merge merge = new Merge(from.toEpochSecond(ZoneOffset.UTC), from.getNano(), new int[STRIPES],
+                    toSecond, to.getNano());
+            while (merge.next()) {
+                PaymentColumns columns = merge.columns();
+                int row = merge.row();
+                visitor.visit(columns.contract(), columns.timeAt(row), columns.amountAt(row));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    //skopiruje najviac contracts.length platieb s casom od (second, nano) do to (bez to) a vrati ich pocet;
+    //skip[i] platieb pruhu i s casom presne (second, nano) vynecha - tie uz kurzor skopiroval v predoslej stranke;
+    //do skip potom zapise, kolko platieb s casom poslednej skopirovanej (vratane predoslych stranok) ma kazdy pruh
+    int copy(long second, int nano, int[] skip, long toSecond, int toNano,
+             AbstractContract[] contracts, int[] rows, long[] seconds, int[] nanos, int[] amounts) {
+        int count = 0;
+        lockAll();
+        try {
+            Merge merge = new Merge(second, nano, skip.clone(), toSecond, toNano);
+            long lastSecond = second;
+            int lastNano = nano;
+            while (count < contracts.length && merge.next()) {
+                PaymentColumns columns = merge.columns();
+                int row = merge.row();
+                long rowSecond = columns.secondAt(row);
+                int rowNano = columns.nanoAt(row);
+                if (rowSecond != lastSecond || rowNano != lastNano) {
+                    Arrays.fill(skip, 0);
+                    lastSecond = rowSecond;
+                    lastNano = rowNano;
+                }
+                skip[merge.stripe()]++;
+                contracts[count] = columns.contract();
+                rows[count] = row;
+                seconds[count] = rowSecond;
+                nanos[count] = rowNano;
+                amounts[count] = columns.amountAt(row);
+                count++;
+            }
+        } finally {
+            unlockAll();
+        }
+        return count;
+    }
+
+    //sucet nepotrebuje poradie, pruhy sa scitaju jeden po druhom
+    long sum(LocalDateTime from, LocalDateTime to) {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (DayPayments day : stripe.days.subMap(epochDay(from), true, epochDay(to), true).values()) {
+                    int end = day.lowerBound(to);
+                    for (int i = day.lowerBound(from); i < end; i++) {
+                        total += day.owners[i].amountAt(day.rows[i]);
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(PaymentColumns columns) {
+        int hash = System.identityHashCode(columns);
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    //vzdy v rovnakom poradi, aby sa dve zlucovania nezablokovali navzajom
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+
+    private static long epochDay(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_DAY);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NavigableMap<Long, DayPayments> days = new TreeMap<>();
+
+        private DayPayments day(long epochDay) {
+            return days.computeIfAbsent(epochDay, k -> new DayPayments());
+        }
+    }
+
+    //zlucuje platby vsetkych pruhov z obdobia v poradi podla casu; vola sa pod zamkami vsetkych pruhov
+    private final class Merge {
+        private final Head[] heads;
+        private Head current;
+
+        private Merge(long second, int nano, int[] skip, long toSecond, int toNano) {
+            heads = new Head[STRIPES];
+            long firstDay = Math.floorDiv(second, SECONDS_PER_DAY);
+            long lastDay = Math.floorDiv(toSecond, SECONDS_PER_DAY);
+            for (int i = 0; i < STRIPES; i++) {
+                heads[i] = new Head(i, stripes[i].days.subMap(firstDay, true, lastDay, true).entrySet().iterator(),
+                        firstDay, lastDay, second, nano, skip[i], toSecond, toNano);
+            }
+        }
+
+        //posunie sa na platbu s najmensim casom spomedzi pruhov
+        private boolean next() {
+            if (current != null) {
+                current.index++;
+                current.settle();
+            }
+            current = null;
+            for (Head head : heads) {
+                if (head.day != null && (current == null || PaymentColumns.compare(head.day.secondAt(head.index),
+                        head.day.nanoAt(head.index), current.day.secondAt(current.index),
+                        current.day.nanoAt(current.index)) < 0)) {
+                    current = head;
+                }
+            }
+            return current != null;
+        }
+
+        private int stripe() {
+            return current.stripe;
+        }
+
+        private PaymentColumns columns() {
+            return current.day.owners[current.index];
+        }
+
+        private int row() {
+            return current.day.rows[current.index];
+        }
+    }
+
+    //pozicia zlucovania v jednom pruhu; day je null, ked v pruhu uz nic nie je
+    private static final class Head {
+        private final int stripe;
+        private final Iterator<Map.Entry<Long, DayPayments>> days;
+        private final long lastDay;
+        private final long toSecond;
+        private final int toNano;
+        private DayPayments day;
+        private int index;
+        private int end;
+
+        private Head(int stripe, Iterator<Map.Entry<Long, DayPayments>> days, long firstDay, long lastDay,
+                     long second, int nano, int skip, long toSecond, int toNano) {
+            this.stripe = stripe;
+            this.days = days;
+            this.lastDay = lastDay;
+            this.toSecond = toSecond;
+            this.toNano = toNano;
+            //platby s casom (second, nano) su len v prvom dni obdobia
+            if (nextDay() == firstDay) {
+                //platby s casom presne (second, nano) su za sebou, preskocia sa naraz
+                index = Math.min(day.lowerBound(second, nano) + skip, day.lowerBound(second, nano + 1));
+            }
+            settle();
+        }
+
+        //vrati cislo dalsieho dna, alebo Long.MIN_VALUE ak uz ziadny nie je
+        private long nextDay() {
+            if (!days.hasNext()) {
+                day = null;
+                return Long.MIN_VALUE;
+            }
+            Map.Entry<Long, DayPayments> entry = days.next();
+            day = entry.getValue();
+            index = 0;
+            end = entry.getKey() == lastDay ? day.lowerBound(toSecond, toNano) : day.size;
+            return entry.getKey();
+        }
+
+        //ak je den vycerpany, prejde na dalsi neprazdny
+        private void settle() {
+            while (day != null && index >= end) {
+                nextDay();
+            }
+        }
+    }
+
+    //platby jedneho dna zoradene podla casu - na pozicii i je riadok rows[i] v stlpcoch owners[i]
+    private static final class DayPayments {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private PaymentColumns[] owners = new PaymentColumns[INITIAL_CAPACITY];
+        private int[] rows = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private long secondAt(int index) {
+            return owners[index].secondAt(rows[index]);
+        }
+
+        private int nanoAt(int index) {
+            return owners[index].nanoAt(rows[index]);
+        }
+
+        //rovnako ako v PaymentColumns - platba sa zaradi za vsetky s rovnakym casom
+        private void add(PaymentColumns columns, int row) {
+            long second = columns.secondAt(row);
+            int nano = columns.nanoAt(row);
+            if (size == rows.length) {
+                owners = Arrays.copyOf(owners, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            int position = size;
+            while (position > 0 && PaymentColumns.compare(secondAt(position - 1), nanoAt(position - 1), second, nano) > 0) {
+                position--;
+            }
+            System.arraycopy(owners, position, owners, position + 1, size - position);
+            System.arraycopy(rows, position, rows, position + 1, size - position);
+            owners[position] = columns;
+            rows[position] = row;
+            size++;
+        }
+
+        private int lowerBound(LocalDateTime time) {
+            return lowerBound(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+        }
+
+        private int lowerBound(long second, int nano) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (PaymentColumns.compare(secondAt(middle), nanoAt(middle), second, nano) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
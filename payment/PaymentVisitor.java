@@ -0,0 +1,10 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+
+//spracuje jednu platbu pri prechadzani historie platieb (napr. pri zostavovani vykazu)
+public interface PaymentVisitor {
+    void visit(AbstractContract contract, LocalDateTime paymentTime, int paymentAmount);
+}
@@ -1,15 +1,20 @@
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import company.BillingSummary;
 import company.InsuranceCompany;
 import contracts.InvalidContractException;
 import contracts.MasterVehicleContract;
@@ -394,6 +399,63 @@ public class AdditionalTests {
         assertThrows(InvalidContractException.class, () -> handler.pay(otherContract, 100));
     }
 
+    @Test
+    public void testPaymentHistoryKeepsPaymentsAtTheSameTime() {
+        SingleVehicleContract contract = insuranceCompany.insureVehicle(
+                "SV1", null, naturalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        PaymentHandler handler = insuranceCompany.getHandler();
+
+        handler.pay(contract, 100);
+        handler.pay(contract, 50);
+        insuranceCompany.setCurrentTime(testTime.minusDays(1)); // clock moved back
+        handler.pay(contract, 20);
+
+        Set<PaymentInstance> history = handler.getPaymentHistory().get(contract);
+        assertEquals(3, history.size());
+        List<Integer> amounts = new ArrayList<>();
+        for (PaymentInstance payment : history) {
+            amounts.add(payment.getPaymentAmount());
+        }
+        // Ordered by time, payments at the same time stay in the order they were made
+        assertEquals(List.of(20, 100, 50), amounts);
+        assertEquals(testTime.minusDays(1), history.iterator().next().getPaymentTime());
+        assertEquals(130, contract.getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    public void testMasterContractPrepaymentIsSpreadInRounds() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle(
+                "SV2", null, legalPerson1, 440, PremiumPaymentFrequency.ANNUAL, vehicle2);
+        SingleVehicleContract c3 = insuranceCompany.insureVehicle(
+                "SV3", null, legalPerson1, 160, PremiumPaymentFrequency.ANNUAL, vehicle3);
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+        for (SingleVehicleContract c : List.of(c1, c2, c3)) {
+            insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, c);
+            c.getContractPaymentData().setOutstandingBalance(0);
+        }
+        c1.getContractPaymentData().setPremium(30);
+        c2.getContractPaymentData().setPremium(50);
+        c3.getContractPaymentData().setPremium(75);
+
+        // Two full rounds (2 * 155) and the remaining 90 goes 30, 50, 10
+        master.pay(400);
+        assertEquals(-90, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(-150, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(-160, c3.getContractPaymentData().getOutstandingBalance());
+
+        // Large prepayment, inactive children get nothing
+        c2.setInactive();
+        master.pay(1_000_000);
+        int rounds = 1_000_000 / 105;
+        int remainder = 1_000_000 - rounds * 105;
+        assertEquals(-90 - rounds * 30 - Math.min(30, remainder), c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(-150, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(-160 - rounds * 75 - Math.max(0, remainder - 30), c3.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2, insuranceCompany.getHandler().getPaymentHistory().get(master).size());
+    }
+
     // SECTION 9: TESTING PREMIUM CHARGING
 
     @Test
@@ -419,6 +481,212 @@ public class AdditionalTests {
         //assertEquals(testTime.plusMonths(2), contract.getContractPaymentData().getNextPaymentTime());
     }
 
+    @Test
+    public void testChargePremiumsOnContractsInParallel() {
+        SingleVehicleContract monthly = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle1);
+        SingleVehicleContract annual = insuranceCompany.insureVehicle(
+                "SV2", null, legalPerson1, 500, PremiumPaymentFrequency.ANNUAL, vehicle2);
+        SingleVehicleContract child = insuranceCompany.insureVehicle(
+                "SV3", null, legalPerson1, 50, PremiumPaymentFrequency.MONTHLY, vehicle3);
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, child);
+
+        Set<Person> insuredPersons = new HashSet<>();
+        insuredPersons.add(naturalPerson1);
+        TravelContract inactiveTravel = insuranceCompany.insurePersons(
+                "TP1", legalPerson1, 10, PremiumPaymentFrequency.MONTHLY, insuredPersons);
+        inactiveTravel.setInactive();
+
+        insuranceCompany.setCurrentTime(testTime.plusMonths(2));
+        BillingSummary summary = insuranceCompany.chargePremiumsOnContractsInParallel();
+
+        // Monthly single and the fleet child are charged twice, annual contract is not due yet
+        assertEquals(2, summary.getChargedContracts());
+        assertEquals(2 * 100 + 2 * 50, summary.getTotalAccrued());
+        assertEquals(300, monthly.getContractPaymentData().getOutstandingBalance());
+        assertEquals(500, annual.getContractPaymentData().getOutstandingBalance());
+        assertEquals(150, child.getContractPaymentData().getOutstandingBalance());
+        assertEquals(10, inactiveTravel.getContractPaymentData().getOutstandingBalance());
+
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.chargePremiumsOnContractsInParallel(null));
+    }
+
+    @Test
+    public void testAdvanceTimeChargesOnlyDueContracts() {
+        SingleVehicleContract monthly = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle1);
+        SingleVehicleContract quarterly = insuranceCompany.insureVehicle(
+                "SV2", null, legalPerson1, 200, PremiumPaymentFrequency.QUARTERLY, vehicle2);
+        SingleVehicleContract child = insuranceCompany.insureVehicle(
+                "SV3", null, legalPerson1, 50, PremiumPaymentFrequency.MONTHLY, vehicle3);
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, child);
+
+        // One month later only the monthly contracts are due
+        BillingSummary summary = insuranceCompany.advanceTime(testTime.plusMonths(1));
+        assertEquals(2, summary.getChargedContracts());
+        assertEquals(150, summary.getTotalAccrued());
+        assertEquals(testTime.plusMonths(1), insuranceCompany.getCurrentTime());
+
+        // Inactive contracts are skipped, the same as in chargePremiumsOnContracts
+        monthly.setInactive();
+        summary = insuranceCompany.advanceTime(testTime.plusMonths(3));
+        assertEquals(2, summary.getChargedContracts());
+        assertEquals(200 + 2 * 50, summary.getTotalAccrued());
+        assertEquals(200, monthly.getContractPaymentData().getOutstandingBalance());
+        assertEquals(400, quarterly.getContractPaymentData().getOutstandingBalance());
+        assertEquals(200, child.getContractPaymentData().getOutstandingBalance());
+
+        // Nothing is due yet
+        summary = insuranceCompany.chargeDuePremiumsOnContracts();
+        assertEquals(0, summary.getChargedContracts());
+    }
+
+    @Test
+    public void testChargePremiumAfterLongGapKeepsMonthEndRule() {
+        LocalDateTime monthEnd = LocalDateTime.of(2025, 1, 31, 12, 0);
+        insuranceCompany.setCurrentTime(monthEnd);
+        SingleVehicleContract contract = insuranceCompany.insureVehicle(
+                "SV1", null, naturalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle1);
+        assertEquals(LocalDateTime.of(2025, 2, 28, 12, 0), contract.getContractPaymentData().getNextPaymentTime());
+
+        // Two years later: Feb 2025 .. Jan 2027 are due, every due date stays on the 28th
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2027, 1, 31, 12, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+
+        assertEquals(2500, contract.getContractPaymentData().getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2027, 2, 28, 12, 0), contract.getContractPaymentData().getNextPaymentTime());
+    }
+
+    @Test
+    public void testChargeDuePremiumsMatchesPeriodLoopOnRandomSchedules() {
+        Random random = new Random(2025_04_15L);
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime start = randomDueTime(random);
+            PremiumPaymentFrequency frequency = frequencies[random.nextInt(frequencies.length)];
+            int premium = 1 + random.nextInt(1_000);
+            ContractPaymentData data = new ContractPaymentData(premium, frequency, start, 0);
+
+            // Reference: the original loop, one premium and one plusMonths per due period
+            LocalDateTime next = start;
+            long balance = 0;
+            LocalDateTime now = start.minusDays(random.nextInt(40));
+            for (int step = 0; step < 5; step++) {
+                now = randomClockJump(random, now, next);
+                int periods = 0;
+                while (!next.isAfter(now)) {
+                    balance += premium;
+                    next = next.plusMonths(frequency.getValueInMonths());
+                    periods++;
+                }
+
+                String schedule = start + " " + frequency + " -> " + now;
+                assertEquals(periods, data.chargeDuePremiums(now), schedule);
+                assertEquals(balance, data.getOutstandingBalance(), schedule);
+                assertEquals(next, data.getNextPaymentTime(), schedule);
+            }
+        }
+    }
+
+    @Test
+    public void testSchedulerMatchesFullBillingRunOnRandomSchedules() {
+        Random random = new Random(18L);
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        LocalDateTime now = LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_999);
+        InsuranceCompany full = new InsuranceCompany(now);
+        InsuranceCompany scheduled = new InsuranceCompany(now);
+        Person fullHolder = new Person("12345678");
+        Person scheduledHolder = new Person("12345678");
+        List<SingleVehicleContract> fullContracts = new ArrayList<>();
+        List<SingleVehicleContract> scheduledContracts = new ArrayList<>();
+        List<MasterVehicleContract> fullMasters = new ArrayList<>();
+        List<MasterVehicleContract> scheduledMasters = new ArrayList<>();
+        Set<Integer> moved = new HashSet<>();
+
+        for (int step = 0; step < 200; step++) {
+            // New contracts start at the current time, both companies get the same ones
+            for (int n = 1 + random.nextInt(20); n > 0; n--) {
+                int i = fullContracts.size();
+                PremiumPaymentFrequency frequency = frequencies[random.nextInt(frequencies.length)];
+                int premium = 100 + random.nextInt(500);
+                String plate = String.format("TS%05d", i);
+                fullContracts.add(full.insureVehicle("SV" + i, null, fullHolder, premium, frequency,
+                        new Vehicle(plate, 5_000)));
+                scheduledContracts.add(scheduled.insureVehicle("SV" + i, null, scheduledHolder, premium, frequency,
+                        new Vehicle(plate, 5_000)));
+            }
+            int i = random.nextInt(fullContracts.size());
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    // Move into a fleet; the child is then billed through its master
+                    if (fullContracts.get(i).isActive() && moved.add(i)) {
+                        if (fullMasters.isEmpty() || random.nextInt(3) == 0) {
+                            fullMasters.add(full.createMasterVehicleContract("MV" + fullMasters.size(), null, fullHolder));
+                            scheduledMasters.add(scheduled.createMasterVehicleContract("MV" + scheduledMasters.size(),
+                                    null, scheduledHolder));
+                        }
+                        int m = random.nextInt(fullMasters.size());
+                        full.moveSingleVehicleContractToMasterVehicleContract(fullMasters.get(m), fullContracts.get(i));
+                        scheduled.moveSingleVehicleContractToMasterVehicleContract(scheduledMasters.get(m),
+                                scheduledContracts.get(i));
+                    }
+                }
+                case 1 -> {
+                    fullContracts.get(i).setInactive();
+                    scheduledContracts.get(i).setInactive();
+                }
+                case 2 -> {
+                    // Charged outside a billing run, so the scheduler's queue entry is out of date
+                    full.chargePremiumOnContract(fullContracts.get(i));
+                    scheduled.chargePremiumOnContract(scheduledContracts.get(i));
+                }
+                default -> {
+                }
+            }
+
+            now = randomClockJump(random, now, fullContracts.get(i).getContractPaymentData().getNextPaymentTime());
+            full.setCurrentTime(now);
+            full.chargePremiumsOnContracts();
+            scheduled.advanceTime(now);
+
+            for (int c = 0; c < fullContracts.size(); c++) {
+                ContractPaymentData expected = fullContracts.get(c).getContractPaymentData();
+                ContractPaymentData actual = scheduledContracts.get(c).getContractPaymentData();
+                String message = "SV" + c + " at " + now;
+                assertEquals(expected.getOutstandingBalance(), actual.getOutstandingBalance(), message);
+                assertEquals(expected.getNextPaymentTime(), actual.getNextPaymentTime(), message);
+            }
+        }
+    }
+
+    // Half of the schedules start on the last days of a month, where plusMonths shortens the day
+    private static LocalDateTime randomDueTime(Random random) {
+        LocalDateTime time = LocalDateTime.of(1990, 1, 1, 0, 0)
+                .plusMonths(random.nextInt(12 * 60))
+                .plusMinutes(random.nextInt(24 * 60));
+        int length = time.toLocalDate().lengthOfMonth();
+        time = time.withDayOfMonth(random.nextBoolean() ? length - random.nextInt(4) : 1 + random.nextInt(length));
+        return random.nextInt(10) == 0 ? time.withNano(1 + random.nextInt(999_999_999)) : time;
+    }
+
+    // Clock jumps of a few days up to decades, some exactly onto the next due time or just before it
+    private static LocalDateTime randomClockJump(Random random, LocalDateTime now, LocalDateTime nextDue) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return now.plusHours(random.nextInt(24 * 60));
+            case 1:
+                return now.plusMonths(random.nextInt(24)).plusDays(random.nextInt(3) - 1);
+            case 2:
+                return now.plusYears(1 + random.nextInt(40)).plusMinutes(random.nextInt(24 * 60));
+            case 3:
+                return nextDue.isAfter(now) ? nextDue : now;
+            default:
+                return nextDue.minusNanos(1).isAfter(now) ? nextDue.minusNanos(1) : now;
+        }
+    }
+
     // SECTION 10: TESTING CLAIM PROCESSING
 
     @Test
@@ -572,4 +840,256 @@ public class AdditionalTests {
         assertFalse(anotherChild1.isActive());
         assertFalse(anotherChild2.isActive());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMasterContractActiveStatusFollowsChildSetChanges() {
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+        SingleVehicleContract active = insuranceCompany.insureVehicle(
+                "C1", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        SingleVehicleContract inactive = insuranceCompany.insureVehicle(
+                "C2", null, legalPerson1, 450, PremiumPaymentFrequency.ANNUAL, vehicle2);
+        inactive.setInactive();
+
+        // Children added directly to the set are counted as well
+        master.getChildContracts().add(inactive);
+        assertFalse(master.isActive());
+        master.getChildContracts().add(active);
+        assertTrue(master.isActive());
+
+        // Removing the only active child makes the master inactive again
+        master.getChildContracts().remove(active);
+        assertFalse(master.isActive());
+        // ... and a removed child no longer affects the master
+        master.getChildContracts().add(active);
+        master.getChildContracts().remove(inactive);
+        assertTrue(master.isActive());
+        active.setInactive();
+        active.setInactive(); // deactivating twice is counted once
+        assertFalse(master.isActive());
+    }
+
+    // SECTION 12: TESTING CONTRACT LOOKUP
+
+    @Test
+    public void testActiveAndInactiveContractsAreKeptApart() {
+        SingleVehicleContract single = insuranceCompany.insureVehicle(
+                "SV1", null, naturalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        SingleVehicleContract claimed = insuranceCompany.insureVehicle(
+                "SV2", null, naturalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+        SingleVehicleContract child = insuranceCompany.insureVehicle(
+                "SV3", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle3);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, child);
+
+        assertEquals(Set.of(single, claimed, master), insuranceCompany.getActiveContracts());
+        assertTrue(insuranceCompany.getInactiveContracts().isEmpty());
+
+        // Total damage deactivates the contract
+        insuranceCompany.processClaim(claimed, 15_000);
+        // The master becomes inactive together with its last active child
+        child.setInactive();
+
+        assertEquals(Set.of(single), insuranceCompany.getActiveContracts());
+        assertEquals(Set.of(claimed, master), insuranceCompany.getInactiveContracts());
+        // Lookups still find inactive contracts
+        assertTrue(insuranceCompany.getContracts().contains(claimed));
+        assertSame(claimed, insuranceCompany.findContract("SV2"));
+
+        // Billing only touches the active contract
+        insuranceCompany.setCurrentTime(testTime.plusYears(1));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(600, single.getContractPaymentData().getOutstandingBalance());
+        assertEquals(300, claimed.getContractPaymentData().getOutstandingBalance());
+        assertEquals(300, child.getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    public void testFindContract() {
+        SingleVehicleContract single = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MV1", null, legalPerson1);
+
+        assertSame(single, insuranceCompany.findContract("SV1"));
+        assertSame(master, insuranceCompany.findContract("MV1"));
+        assertNull(insuranceCompany.findContract("XX1"));
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.findContract(null));
+
+        // Moved contract is still found and its number stays taken
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, single);
+        assertSame(single, insuranceCompany.findContract("SV1"));
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle2));
+
+        // Removing a contract from the company frees its number
+        insuranceCompany.getContracts().remove(master);
+        assertNull(insuranceCompany.findContract("MV1"));
+        assertNull(insuranceCompany.findContract("SV1"));
+    }
+
+    // SECTION 13: TESTING CONCURRENT ACCESS
+
+    @Test
+    public void testConcurrentPaymentsClaimsAndBilling() throws InterruptedException {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle1);
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle(
+                "SV2", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle2);
+        SingleVehicleContract claimed = insuranceCompany.insureVehicle(
+                "SV3", naturalPerson1, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle3);
+        claimed.setCoverageAmount(1);
+
+        int threads = 4;
+        int rounds = 1000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    c1.pay(1);
+                    c2.pay(2);
+                    insuranceCompany.processClaim(claimed, 1);
+                    insuranceCompany.chargePremiumsOnContracts();
+                    if (i % 100 == 0) {
+                        insuranceCompany.insureVehicle("T" + id + "_" + i, null, legalPerson1, 100,
+                                PremiumPaymentFrequency.MONTHLY, vehicle1);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(100 - threads * rounds, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(100 - 2 * threads * rounds, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(threads * rounds, naturalPerson1.getPaidOutAmount());
+        assertEquals(3 + threads * rounds / 100, insuranceCompany.getContractsSnapshot().size());
+    }
+
+    @Test
+    public void testPersonsAreSharedAcrossContracts() {
+        assertNull(insuranceCompany.findPerson("12345678"));
+        SingleVehicleContract single = insuranceCompany.insureVehicle(
+                "SV1", naturalPerson1, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, vehicle1);
+        assertSame(legalPerson1, insuranceCompany.findPerson("12345678"));
+        assertSame(naturalPerson1, insuranceCompany.findPerson("8351068242"));
+
+        // Another object with the same ID is the same customer
+        Person sameHolder = new Person("12345678");
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MVC1", null, sameHolder);
+        assertSame(legalPerson1, master.getPolicyHolder());
+        assertEquals(2, legalPerson1.getContracts().size());
+        assertTrue(sameHolder.getContracts().isEmpty());
+
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, single);
+        assertTrue(master.getChildContracts().contains(single));
+
+        Set<Person> insured = new HashSet<>();
+        insured.add(naturalPerson1);
+        insured.add(new Person("8351068242"));
+        TravelContract travel = insuranceCompany.insurePersons(
+                "TC1", sameHolder, 10, PremiumPaymentFrequency.ANNUAL, insured);
+        assertEquals(Set.of(naturalPerson1), travel.getInsuredPersons());
+        assertEquals(10, travel.getCoverageAmount());
+        assertEquals(2, insuranceCompany.getPersons().size());
+
+        // Failed contract does not register anyone
+        Set<Person> legal = Set.of(legalPerson2);
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insurePersons(
+                "TC2", naturalPerson2, 10, PremiumPaymentFrequency.ANNUAL, legal));
+        assertNull(insuranceCompany.findPerson("0402114911"));
+    }
+
+    @Test
+    public void testTravelClaimWithCallersCopyOfRegisteredPerson() {
+        insuranceCompany.insureVehicle("SV1", naturalPerson1, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY,
+                vehicle1);
+
+        // The caller keeps its own objects for customers the company already knows
+        Person holderCopy = new Person("12345678");
+        Person insuredCopy = new Person("8351068242");
+        Set<Person> insured = new HashSet<>();
+        insured.add(insuredCopy);
+        insured.add(naturalPerson2);
+        TravelContract travel = insuranceCompany.insurePersons(
+                "TC1", holderCopy, 10, PremiumPaymentFrequency.ANNUAL, insured);
+        assertSame(legalPerson1, travel.getPolicyHolder());
+        assertSame(legalPerson1, insuranceCompany.findPerson(holderCopy.getId()));
+
+        // The same copies are accepted by the claim and the payout goes to the registered customer
+        insuranceCompany.processClaim(travel, Set.of(insuredCopy, naturalPerson2));
+        assertFalse(travel.isActive());
+        assertEquals(10, naturalPerson1.getPaidOutAmount());
+        assertEquals(10, naturalPerson2.getPaidOutAmount());
+        assertEquals(0, insuredCopy.getPaidOutAmount());
+
+        // A person who is not insured on the contract is still rejected
+        TravelContract other = insuranceCompany.insurePersons(
+                "TC2", holderCopy, 10, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("8351068242")));
+        assertThrows(IllegalArgumentException.class,
+                () -> insuranceCompany.processClaim(other, Set.of(new Person("0402114911"))));
+        assertTrue(other.isActive());
+    }
+
+    @Test
+    public void testTravelClaimCountsPersonsWithTheSameIdOnce() {
+        Set<Person> insured = new HashSet<>();
+        insured.add(naturalPerson1);
+        insured.add(naturalPerson2);
+        TravelContract travel = insuranceCompany.insurePersons(
+                "TC1", legalPerson1, 10, PremiumPaymentFrequency.ANNUAL, insured);
+        assertEquals(20, travel.getCoverageAmount());
+
+        // Two objects with one ID are one affected customer, so the coverage is split in two, not three
+        Person copy = new Person("8351068242");
+        Set<Person> affected = new HashSet<>();
+        affected.add(naturalPerson1);
+        affected.add(copy);
+        affected.add(naturalPerson2);
+        assertEquals(3, affected.size());
+        insuranceCompany.processClaim(travel, affected);
+        assertEquals(10, naturalPerson1.getPaidOutAmount());
+        assertEquals(10, naturalPerson2.getPaidOutAmount());
+        assertEquals(0, copy.getPaidOutAmount());
+        assertTrue(copy.getContracts().isEmpty());
+    }
+
+    @Test
+    public void testLicensePlateIndex() {
+        assertNull(insuranceCompany.findContractByLicensePlate("AA111AA"));
+        SingleVehicleContract single = insuranceCompany.insureVehicle(
+                "SV1", null, legalPerson1, 300, PremiumPaymentFrequency.ANNUAL, vehicle1);
+        SingleVehicleContract child = insuranceCompany.insureVehicle(
+                "SV2", null, legalPerson1, 440, PremiumPaymentFrequency.ANNUAL, vehicle2);
+        assertSame(single, insuranceCompany.findContractByLicensePlate("AA111AA"));
+
+        // Another policy holder cannot insure an insured vehicle
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle(
+                "SV3", null, naturalPerson1, 300, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000)));
+
+        // Moved contracts stay findable by plate
+        MasterVehicleContract master = insuranceCompany.createMasterVehicleContract("MVC1", null, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        assertSame(child, insuranceCompany.findContractByLicensePlate("BANAN22"));
+
+        // Claim intake by plate, total loss ends the contract and frees the plate
+        insuranceCompany.processClaimByLicensePlate("BANAN22", 1_000);
+        assertEquals(11_000, legalPerson1.getPaidOutAmount());
+        insuranceCompany.processClaimByLicensePlate("BANAN22", 20_000);
+        assertFalse(child.isActive());
+        assertNull(insuranceCompany.findContractByLicensePlate("BANAN22"));
+        assertThrows(InvalidContractException.class, () -> insuranceCompany.processClaimByLicensePlate("BANAN22", 1_000));
+
+        SingleVehicleContract renewed = insuranceCompany.insureVehicle(
+                "SV4", null, naturalPerson1, 440, PremiumPaymentFrequency.ANNUAL, vehicle2);
+        assertSame(renewed, insuranceCompany.findContractByLicensePlate("BANAN22"));
+
+        // Removing a contract from the company removes it from the index
+        insuranceCompany.getContracts().remove(single);
+        assertNull(insuranceCompany.findContractByLicensePlate("AA111AA"));
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.findContractByLicensePlate(null));
+    }
+}
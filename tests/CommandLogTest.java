@@ -0,0 +1,345 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PaymentHandler;
+import payment.PaymentOrder;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandLogTest {
+
+    private Path file;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("insurance", ".log");
+        start = LocalDateTime.of(2025, 1, 31, 9, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testReplayRestoresState() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            Person holder = new Person("12345678");
+            Person driver = new Person("8351068242");
+            SingleVehicleContract single = company.insureVehicle("SV1", driver, holder, 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+            SingleVehicleContract child = company.insureVehicle("SV2", null, holder, 200,
+                    PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+            MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            TravelContract travel = company.insurePersons("TC1", holder, 10, PremiumPaymentFrequency.ANNUAL,
+                    Set.of(driver, new Person("0402114911")));
+
+            single.pay(50);
+            master.pay(1_000);
+            company.advanceTime(start.plusMonths(2));
+            company.processClaim(single, 20_000);
+            company.processClaim(travel, Set.of(driver));
+            company.setCurrentTime(start.plusMonths(3));
+            company.chargePremiumsOnContracts();
+        }
+
+        InsuranceCompany restored = new InsuranceCompany(LocalDateTime.of(2000, 1, 1, 0, 0));
+        assertEquals(14, CommandLog.replay(file, restored));
+        assertEquals(company.getCurrentTime(), restored.getCurrentTime());
+        for (String number : List.of("SV1", "SV2", "MVC1", "TC1")) {
+            AbstractContract original = company.findContract(number);
+            AbstractContract copy = restored.findContract(number);
+            assertEquals(original.isActive(), copy.isActive(), number);
+            if (original.getContractPaymentData() != null) {
+                assertEquals(original.getContractPaymentData().getOutstandingBalance(),
+                        copy.getContractPaymentData().getOutstandingBalance(), number);
+                assertEquals(original.getContractPaymentData().getNextPaymentTime(),
+                        copy.getContractPaymentData().getNextPaymentTime(), number);
+            }
+        }
+        assertEquals(company.findPerson("8351068242").getPaidOutAmount(),
+                restored.findPerson("8351068242").getPaidOutAmount());
+        assertEquals(company.getHandler().getPaymentLedger().getTotalPaid(start, start.plusYears(1)),
+                restored.getHandler().getPaymentLedger().getTotalPaid(start, start.plusYears(1)));
+        assertTrue(((MasterVehicleContract) restored.findContract("MVC1")).getChildContracts()
+                .contains((SingleVehicleContract) restored.findContract("SV2")));
+    }
+
+    @Test
+    void testTornTailIsIgnoredAndCut() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            company.insureVehicle("SV1", null, new Person("12345678"), 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        }
+        long valid = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND); //havaria pocas zapisu
+
+        assertEquals(2, CommandLog.replay(file, new InsuranceCompany(start)));
+        try (CommandLog log = new CommandLog(file)) {
+            assertEquals(valid, Files.size(file));
+            InsuranceCompany restored = new InsuranceCompany(start);
+            CommandLog.replay(file, restored);
+            restored.setCommandLog(log);
+            restored.findContract("SV1").pay(30);
+        }
+        InsuranceCompany again = new InsuranceCompany(start);
+        assertEquals(4, CommandLog.replay(file, again));
+        assertEquals(70, again.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testClosedLogRejectsOperationsBeforeTheyChangeState() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        CommandLog log = new CommandLog(file);
+        company.setCommandLog(log);
+        AbstractContract contract = company.insureVehicle("SV1", null, new Person("12345678"), 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        log.close();
+        long size = Files.size(file);
+
+        assertThrows(IllegalStateException.class, () -> contract.pay(30));
+        assertThrows(IllegalStateException.class, () -> company.getHandler().payAll(
+                List.of(new PaymentOrder(contract, 30))));
+        assertThrows(IllegalStateException.class, () -> company.insureVehicle("SV2", null, new Person("12345678"),
+                100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000)));
+        assertThrows(IllegalStateException.class, () -> company.setCurrentTime(start.plusDays(1)));
+        assertThrows(IllegalStateException.class, () -> log.pay(start, contract, 30));
+        assertEquals(100, contract.getContractPaymentData().getOutstandingBalance());
+        assertNull(company.findContract("SV2"));
+        assertEquals(start, company.getCurrentTime());
+        assertEquals(size, Files.size(file));
+        log.close(); //druhe zatvorenie nic nerobi
+    }
+
+    @Test
+    void testFailedWriteLeavesOperationInMemoryAndLogAsTheTruth() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        CommandLog log = new CommandLog(file);
+        company.setCommandLog(log);
+        AbstractContract contract = company.insureVehicle("SV1", null, new Person("12345678"), 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        contract.pay(10);
+
+        //prerusene vlakno zavrie kanal pocas zapisu (ClosedByInterruptException) - zapis baliku zlyha
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(UncheckedIOException.class, () -> contract.pay(30));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(60, contract.getContractPaymentData().getOutstandingBalance()); //platba v pamati prebehla
+
+        //dalsie operacie sa odmietnu skor, nez zmenia stav
+        assertThrows(UncheckedIOException.class, () -> contract.pay(5));
+        assertThrows(UncheckedIOException.class, () -> company.insureVehicle("SV2", null, new Person("12345678"),
+                100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000)));
+        assertEquals(60, contract.getContractPaymentData().getOutstandingBalance());
+        assertNull(company.findContract("SV2"));
+        assertThrows(IOException.class, log::close);
+
+        //platny je log - neulozena platba v nom nie je
+        InsuranceCompany restored = new InsuranceCompany(start);
+        CommandLog.replay(file, restored);
+        assertEquals(90, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testBatchPaymentsAreLoggedOneByOne() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            AbstractContract contract = company.insureVehicle("SV1", null, new Person("12345678"), 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+            company.getHandler().payAll(List.of(new PaymentOrder(contract, 30), new PaymentOrder(contract, -1),
+                    new PaymentOrder(contract, 45)));
+        }
+
+        InsuranceCompany restored = new InsuranceCompany(start);
+        assertEquals(2 + 2, CommandLog.replay(file, restored));
+        assertEquals(25, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+        assertEquals(2, restored.getHandler().getPaymentLedger().getPaymentCount(restored.findContract("SV1")));
+    }
+
+    @Test
+    void testHandlerOutsideCompanyDoesNotPayWhileLogged() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        PaymentHandler outside = new PaymentHandler(company);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            AbstractContract contract = company.insureVehicle("SV1", null, new Person("12345678"), 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+            assertThrows(IllegalStateException.class, () -> outside.pay(contract, 30));
+            assertThrows(IllegalStateException.class, () -> outside.payAll(List.of(new PaymentOrder(contract, 30))));
+            assertEquals(100, contract.getContractPaymentData().getOutstandingBalance());
+            company.getHandler().pay(contract, 30);
+        }
+
+        InsuranceCompany restored = new InsuranceCompany(start);
+        assertEquals(1 + 1 + 1, CommandLog.replay(file, restored));
+        assertEquals(70, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testRecordLargerThanOneMegabyteSurvivesReopen() throws IOException {
+        Set<Person> group = new LinkedHashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            //rodne cislo delitelne 11 (rok, mesiac, den a poradie z i)
+            long number = (((i % 100) * 100L + 1 + (i / 100) % 12) * 100 + 1 + (i / 1200) % 28) * 10_000;
+            number += (11 - number % 11) % 11 + (i / 33_600) * 11L;
+            group.add(new Person(String.format("%010d", number)));
+        }
+        InsuranceCompany company = new InsuranceCompany(start);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            company.insurePersons("TC1", new Person("12345678"), 500_000, PremiumPaymentFrequency.ANNUAL, group);
+            company.findContract("TC1").pay(1_000);
+        }
+        assertTrue(Files.size(file) > (1 << 20));
+        long size = Files.size(file);
+
+        try (CommandLog log = new CommandLog(file)) {
+            assertEquals(size, Files.size(file)); //velky zaznam nie je neuplny koniec, nic sa neodreze
+        }
+        InsuranceCompany restored = new InsuranceCompany(start);
+        assertEquals(1 + 1 + 1, CommandLog.replay(file, restored));
+        assertEquals(100_000, ((TravelContract) restored.findContract("TC1")).getInsuredPersons().size());
+        assertEquals(499_000, restored.findContract("TC1").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testConcurrentPaymentsShareCommits() throws Exception {
+        InsuranceCompany company = new InsuranceCompany(start);
+        List<SingleVehicleContract> contracts = new ArrayList<>();
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            Person holder = new Person("12345678");
+            for (int i = 0; i < 4; i++) {
+                contracts.add(company.insureVehicle("SV" + i, null, holder, 100,
+                        PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111A" + i, 15_000)));
+            }
+            List<Thread> workers = new ArrayList<>();
+            for (SingleVehicleContract contract : contracts) {
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        contract.pay(1);
+                    }
+                }));
+            }
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        InsuranceCompany restored = new InsuranceCompany(start);
+        assertEquals(1 + 4 + 800, CommandLog.replay(file, restored));
+        for (SingleVehicleContract contract : contracts) {
+            assertEquals(-100, restored.findContract(contract.getContractNumber())
+                    .getContractPaymentData().getOutstandingBalance());
+        }
+    }
+
+    @Test
+    void testChargeOfOneContractIsLogged() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            Person holder = new Person("12345678");
+            SingleVehicleContract single = company.insureVehicle("SV1", null, holder, 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+            SingleVehicleContract child = company.insureVehicle("SV2", null, holder, 200,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+            MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            company.setCurrentTime(start.plusMonths(2));
+            company.chargePremiumOnContract(single);
+            master.updateBalance();
+        }
+        assertEquals(300, company.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+        assertEquals(600, company.findContract("SV2").getContractPaymentData().getOutstandingBalance());
+
+        InsuranceCompany restored = new InsuranceCompany(start);
+        assertEquals(1 + 2 + 1 + 1 + 1 + 2, CommandLog.replay(file, restored)); //zaznam za kazdu dcersku zmluvu
+        assertEquals(300, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+        assertEquals(600, restored.findContract("SV2").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testBillingDuringFleetPaymentsReplaysTheSame() throws Exception {
+        InsuranceCompany company = new InsuranceCompany(start);
+        List<SingleVehicleContract> fleet = new ArrayList<>();
+        try (CommandLog log = new CommandLog(file)) {
+            company.setCommandLog(log);
+            Person holder = new Person("12345678");
+            MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+            company.runBatch(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    SingleVehicleContract child = company.insureVehicle("SV" + i, null, holder, 100 + i % 7,
+                            PremiumPaymentFrequency.MONTHLY, new Vehicle(String.format("AA%05d", i), 5_000));
+                    company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+                    fleet.add(child);
+                }
+            });
+            //platby delia preplatok podla nedoplatkov, ktore zauctovanie prave meni
+            AtomicBoolean billing = new AtomicBoolean(true);
+            List<Thread> payers = new ArrayList<>();
+            for (int p = 0; p < 2; p++) {
+                payers.add(new Thread(() -> {
+                    while (billing.get()) {
+                        master.pay(50_000);
+                    }
+                }));
+            }
+            payers.forEach(Thread::start);
+            for (int month = 1; month <= 24; month++) {
+                company.setCurrentTime(start.plusMonths(month));
+                if (month % 2 == 0) {
+                    company.chargePremiumsOnContracts();
+                } else {
+                    company.chargeDuePremiumsOnContracts();
+                }
+            }
+            billing.set(false);
+            for (Thread payer : payers) {
+                payer.join();
+            }
+        }
+
+        InsuranceCompany restored = new InsuranceCompany(start);
+        CommandLog.replay(file, restored);
+        for (SingleVehicleContract child : fleet) {
+            assertEquals(child.getContractPaymentData().getOutstandingBalance(),
+                    restored.findContract(child.getContractNumber()).getContractPaymentData().getOutstandingBalance(),
+                    child.getContractNumber());
+        }
+    }
+}
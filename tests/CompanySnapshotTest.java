@@ -0,0 +1,175 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PaymentDataStore;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompanySnapshotTest {
+
+    private Path file;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("insurance", ".snapshot");
+        start = LocalDateTime.of(2025, 1, 31, 9, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        Person holder = new Person("12345678");
+        Person driver = new Person("8351068242");
+        SingleVehicleContract single = company.insureVehicle("SV1", driver, holder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract child = company.insureVehicle("SV2", null, holder, 200,
+                PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+        company.insureVehicle("SV3", null, holder, 300,
+                PremiumPaymentFrequency.ANNUAL, new Vehicle("CC333CC", 8_000));
+        MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        TravelContract travel = company.insurePersons("TC1", holder, 10, PremiumPaymentFrequency.ANNUAL,
+                Set.of(driver, new Person("0402114911")));
+
+        single.pay(50);
+        master.pay(1_000);
+        company.advanceTime(start.plusMonths(2));
+        company.processClaim(single, 20_000);
+        company.processClaim(travel, Set.of(driver));
+
+        CompanySnapshot.write(company, file);
+        InsuranceCompany restored = CompanySnapshot.read(file, new PaymentDataStore(true));
+
+        assertEquals(company.getCurrentTime(), restored.getCurrentTime());
+        assertEquals(company.getContracts().size(), restored.getContracts().size());
+        for (String number : List.of("SV1", "SV2", "SV3", "MVC1", "TC1")) {
+            AbstractContract original = company.findContract(number);
+            AbstractContract copy = restored.findContract(number);
+            assertEquals(original.isActive(), copy.isActive(), number);
+            assertEquals(original.getCoverageAmount(), copy.getCoverageAmount(), number);
+            if (original.getContractPaymentData() != null) {
+                assertEquals(original.getContractPaymentData().getOutstandingBalance(),
+                        copy.getContractPaymentData().getOutstandingBalance(), number);
+                assertEquals(original.getContractPaymentData().getNextPaymentTime(),
+                        copy.getContractPaymentData().getNextPaymentTime(), number);
+            }
+        }
+        Vehicle vehicle = ((SingleVehicleContract) restored.findContract("SV1")).getInsuredVehicle();
+        assertEquals("AA111AA", vehicle.getLicensePlate());
+        assertEquals(15_000, vehicle.getOriginalValue());
+        assertEquals(company.findPerson("8351068242").getPaidOutAmount(),
+                restored.findPerson("8351068242").getPaidOutAmount());
+        assertEquals(company.getHandler().getPaymentLedger().getTotalPaid(start, start.plusYears(1)),
+                restored.getHandler().getPaymentLedger().getTotalPaid(start, start.plusYears(1)));
+
+        //osoby su zdielane a master zmluva drzi svoju dcersku zmluvu
+        Person restoredHolder = restored.findPerson("12345678");
+        assertSame(restoredHolder, restored.findContract("MVC1").getPolicyHolder());
+        assertSame(restoredHolder, restored.findContract("TC1").getPolicyHolder());
+        assertEquals(holder.getContracts().size(), restoredHolder.getContracts().size());
+        assertTrue(((MasterVehicleContract) restored.findContract("MVC1")).getChildContracts()
+                .contains((SingleVehicleContract) restored.findContract("SV2")));
+        assertSame(restored.findContract("SV3"), restored.findContractByLicensePlate("CC333CC"));
+        assertNull(restored.findContractByLicensePlate("AA111AA"));
+    }
+
+    @Test
+    void testRestoredCompanyKeepsWorking() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        Person holder = new Person("12345678");
+        company.insureVehicle("SV1", null, holder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        CompanySnapshot.write(company, file);
+
+        InsuranceCompany restored = CompanySnapshot.read(file);
+        restored.findContract("SV1").pay(30);
+        assertEquals(70, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+        restored.advanceTime(start.plusMonths(1));
+        assertEquals(170, restored.findContract("SV1").getContractPaymentData().getOutstandingBalance());
+        assertThrows(IllegalArgumentException.class, () -> restored.insureVehicle("SV2", null,
+                new Person("87654321"), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000)));
+    }
+
+    @Test
+    void testMasterKeepsItsOwnStateApartFromFleet() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        Person holder = new Person("12345678");
+        SingleVehicleContract child = company.insureVehicle("SV1", null, holder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        child.setInactive(); //flotila zanikla, samotna master zmluva nie
+        assertFalse(master.isActive());
+        assertTrue(master.isActiveItself());
+
+        CompanySnapshot.write(company, file);
+        MasterVehicleContract copy = (MasterVehicleContract) CompanySnapshot.read(file).findContract("MVC1");
+        assertFalse(copy.isActive());
+        assertTrue(copy.isActiveItself());
+        assertFalse(copy.getChildContracts().iterator().next().isActive());
+    }
+
+    @Test
+    void testSnapshotIsOnePointInTimeWhilePaymentsGoOn() throws IOException, InterruptedException {
+        InsuranceCompany company = new InsuranceCompany(start);
+        Person holder = new Person("8351068242");
+        List<TravelContract> contracts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            contracts.add(company.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.ANNUAL, Set.of(holder)));
+        }
+        int initial = contracts.get(0).getContractPaymentData().getOutstandingBalance();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread payer = new Thread(() -> {
+            for (int i = 0; running.get() && i < 300_000; i++) {
+                contracts.get(i % contracts.size()).pay(1);
+            }
+        });
+        payer.start();
+        try {
+            for (int round = 0; round < 3; round++) {
+                CompanySnapshot.write(company, file);
+                InsuranceCompany restored = CompanySnapshot.read(file);
+                for (int i = 0; i < contracts.size(); i++) {
+                    AbstractContract copy = restored.findContract("T" + i);
+                    long paid = restored.getHandler().getPaymentLedger()
+                            .getTotalPaid(copy, LocalDateTime.MIN, LocalDateTime.MAX);
+                    //kazda platba v historii je aj v nedoplatku a naopak
+                    assertEquals(initial, copy.getContractPaymentData().getOutstandingBalance() + paid, "T" + i);
+                }
+            }
+        } finally {
+            running.set(false);
+            payer.join();
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> CompanySnapshot.read(file));
+    }
+}
@@ -0,0 +1,242 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractExporterTest {
+
+    private Path file;
+    private LocalDateTime start;
+    private InsuranceCompany company;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("export", ".csv");
+        start = LocalDateTime.of(2025, 1, 31, 9, 0);
+        company = new InsuranceCompany(start);
+        Person holder = new Person("12345678");
+        Person driver = new Person("8351068242");
+        SingleVehicleContract single = company.insureVehicle("SV1", driver, holder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract child = company.insureVehicle("SV2", null, holder, 200,
+                PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+        MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        company.insurePersons("TC1", holder, 10, PremiumPaymentFrequency.ANNUAL,
+                Set.of(driver, new Person("0402114911")));
+        single.pay(30);
+        company.setCurrentTime(start.plusDays(1));
+        master.pay(50);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Test
+    void testContractsCsvCanBeImportedAgain() throws IOException {
+        try (FileChannel channel = open()) {
+            assertEquals(4, new ContractExporter(company, ContractExporter.Format.CSV).exportContracts(channel));
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(ContractExporter.CONTRACTS_HEADER, lines.get(0));
+        assertEquals("VEHICLE,SV1,12345678,8351068242,100,MONTHLY,AA111AA,15000,,,true,7500,70,2025-02-28T09:00",
+                lines.get(1));
+        assertEquals("MASTER,MVC1,12345678,,,,,,,,true,0,,", lines.get(2));
+        assertTrue(lines.get(3).startsWith("VEHICLE,SV2,12345678,,200,QUARTERLY,BANAN22,22000,MVC1,,true,11000,150,"));
+        assertTrue(lines.get(4).startsWith("TRAVEL,TC1,12345678,,10,ANNUAL,,,,"));
+
+        InsuranceCompany copy = new InsuranceCompany(start);
+        ImportSummary summary = new ContractImporter(copy).importFile(file, null);
+        assertEquals(4, summary.getImportedRows());
+        assertTrue(((MasterVehicleContract) copy.findContract("MVC1")).getChildContracts()
+                .contains((SingleVehicleContract) copy.findContract("SV2")));
+    }
+
+    @Test
+    void testQuotedContractNumbersCanBeImportedAgain() throws IOException {
+        InsuranceCompany source = new InsuranceCompany(start);
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = source.createMasterVehicleContract("A,B", null, holder);
+        SingleVehicleContract child = source.insureVehicle("say \"hi\"", null, holder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        source.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        source.insureVehicle("line\r\nbreak", null, holder, 200, PremiumPaymentFrequency.QUARTERLY,
+                new Vehicle("BANAN22", 22_000));
+        try (FileChannel channel = open()) {
+            assertEquals(3, new ContractExporter(source, ContractExporter.Format.CSV).exportContracts(channel));
+        }
+        String csv = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(csv.contains("MASTER,\"A,B\",12345678,"));
+        assertTrue(csv.contains("VEHICLE,\"say \"\"hi\"\"\",12345678,,100,MONTHLY,AA111AA,15000,\"A,B\","));
+
+        InsuranceCompany copy = new InsuranceCompany(start);
+        ImportSummary summary = new ContractImporter(copy).importFile(file, null);
+        assertEquals(3, summary.getImportedRows());
+        assertEquals(0, summary.getRejectedRows());
+        MasterVehicleContract copiedMaster = (MasterVehicleContract) copy.findContract("A,B");
+        assertTrue(copiedMaster.getChildContracts().contains((SingleVehicleContract) copy.findContract("say \"hi\"")));
+        assertEquals(200, copy.findContract("line\r\nbreak").getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testNonAsciiPlatesAndIdsCanBeImportedAgain() throws IOException {
+        InsuranceCompany source = new InsuranceCompany(start);
+        Person holder = new Person("١٢٣٤٥٦٧٨"); //ICO z arabsko-indickych cifier, Person ich berie ako cifry
+        source.insureVehicle("SV1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ÁB123CD", 15_000));
+        source.insureVehicle("SV2", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ŽĽ000ČŠ", 15_000));
+        try (FileChannel channel = open()) {
+            assertEquals(2, new ContractExporter(source, ContractExporter.Format.CSV).exportContracts(channel));
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8); //neplatne UTF-8 by tu zlyhalo
+        assertTrue(lines.get(1).startsWith("VEHICLE,SV1,١٢٣٤٥٦٧٨,,100,MONTHLY,ÁB123CD,15000,"));
+
+        InsuranceCompany copy = new InsuranceCompany(start);
+        ImportSummary summary = new ContractImporter(copy).importFile(file, null);
+        assertEquals(2, summary.getImportedRows());
+        assertEquals(0, summary.getRejectedRows());
+        assertSame(copy.findContract("SV1"), copy.findContractByLicensePlate("ÁB123CD"));
+        assertSame(copy.findContract("SV2"), copy.findContractByLicensePlate("ŽĽ000ČŠ"));
+        assertEquals("١٢٣٤٥٦٧٨", copy.findContract("SV1").getPolicyHolder().getId());
+    }
+
+    @Test
+    void testContractsBinary() throws IOException {
+        try (FileChannel channel = open()) {
+            assertEquals(4, new ContractExporter(company, ContractExporter.Format.BINARY).exportContracts(channel));
+        }
+        ByteBuffer record = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(1, record.get()); //VEHICLE
+        assertEquals("SV1", string(record));
+        assertEquals("12345678", string(record));
+        assertEquals("8351068242", string(record));
+        assertEquals(1, record.get());
+        assertEquals(7500, record.getInt());
+        assertEquals(100, record.getInt());
+        assertEquals(PremiumPaymentFrequency.MONTHLY.ordinal(), record.get());
+        assertEquals(70, record.getInt());
+        assertEquals(start.plusMonths(1), LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(),
+                java.time.ZoneOffset.UTC));
+        assertEquals("AA111AA", string(record));
+        assertEquals(15_000, record.getInt());
+        assertEquals("", string(record));
+
+        assertEquals(2, record.get()); //MASTER bez platobnych udajov
+        assertEquals("MVC1", string(record));
+        assertEquals("12345678", string(record));
+        assertEquals("", string(record));
+        assertEquals(1, record.get());
+        assertEquals(0, record.getInt());
+
+        assertEquals(1, record.get()); //dcerska SV2
+        assertEquals("SV2", string(record));
+        record.position(record.position() + 2 + 8 + 2 + 1 + 4 + 4 + 1 + 4 + 8 + 4);
+        assertEquals("BANAN22", string(record));
+        assertEquals(22_000, record.getInt());
+        assertEquals("MVC1", string(record));
+
+        assertEquals(3, record.get()); //TRAVEL
+        assertEquals("TC1", string(record));
+        record.position(record.position() + 2 + 8 + 2 + 1 + 4 + 4 + 1 + 4 + 8 + 4);
+        assertEquals(2, record.getInt());
+        assertEquals(Set.of("8351068242", "0402114911"), Set.of(string(record), string(record)));
+        assertFalse(record.hasRemaining());
+    }
+
+    @Test
+    void testContractsAreExportedPageByPage() throws IOException {
+        InsuranceCompany source = new InsuranceCompany(start);
+        Person holder = new Person("8351068242");
+        int count = 10_000; //viac stranok exportu
+        for (int i = 0; i < count; i++) {
+            source.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.ANNUAL, Set.of(holder));
+        }
+        try (FileChannel channel = open()) {
+            assertEquals(count, new ContractExporter(source, ContractExporter.Format.CSV).exportContracts(channel));
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(count + 1, lines.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue(lines.get(i + 1).startsWith("TRAVEL,T" + i + ","), lines.get(i + 1));
+        }
+    }
+
+    @Test
+    void testCursorSkipsContractsRemovedBetweenPages() {
+        InsuranceCompany source = new InsuranceCompany(start);
+        Person holder = new Person("8351068242");
+        for (int i = 0; i < 6; i++) {
+            source.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.ANNUAL, Set.of(holder));
+        }
+        ContractRegistry.Cursor cursor = source.contractCursor();
+        AbstractContract[] page = new AbstractContract[2];
+        assertEquals(2, cursor.next(page));
+        assertEquals("T1", page[1].getContractNumber());
+        //odobrata zmluva pod kurzorom aj dalsia za nim - kurzor pokracuje prvou, ktora ostala
+        source.getContracts().remove(page[1]);
+        source.getContracts().remove(source.findContract("T2"));
+        source.insurePersons("T6", holder, 10, PremiumPaymentFrequency.ANNUAL, Set.of(holder));
+        assertEquals(2, cursor.next(page));
+        assertEquals("T3", page[0].getContractNumber());
+        assertEquals("T4", page[1].getContractNumber());
+        assertEquals(2, cursor.next(page));
+        assertEquals("T5", page[0].getContractNumber());
+        assertEquals("T6", page[1].getContractNumber());
+        assertEquals(0, cursor.next(page));
+    }
+
+    private static String string(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPaymentsCsvAndBinary() throws IOException {
+        ContractExporter csv = new ContractExporter(company, ContractExporter.Format.CSV);
+        try (FileChannel channel = open()) {
+            assertEquals(2, csv.exportPayments(channel, start, start.plusMonths(1)));
+        }
+        assertEquals(List.of(ContractExporter.PAYMENTS_HEADER, "SV1,2025-01-31T09:00,30", "MVC1,2025-02-01T09:00,50"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        ContractExporter binary = new ContractExporter(company, ContractExporter.Format.BINARY);
+        try (FileChannel channel = open()) {
+            assertEquals(1, binary.exportPayments(channel, start.plusHours(1), start.plusMonths(1)));
+        }
+        ByteBuffer record = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(4, record.getShort());
+        byte[] number = new byte[4];
+        record.get(number);
+        assertEquals("MVC1", new String(number, StandardCharsets.UTF_8));
+        assertEquals(start.plusDays(1), LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(),
+                java.time.ZoneOffset.UTC));
+        assertEquals(50, record.getInt());
+        assertFalse(record.hasRemaining());
+    }
+}
@@ -0,0 +1,161 @@
+package company;
+
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractImporterTest {
+
+    private Path file;
+    private Path rejects;
+    private InsuranceCompany company;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("contracts", ".csv");
+        rejects = Files.createTempFile("rejects", ".csv");
+        company = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 9, 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(rejects);
+    }
+
+    @Test
+    void testImportsAllContractKinds() throws IOException {
+        Files.writeString(file, ContractImporter.CSV_HEADER + "\r\n"
+                + "VEHICLE,SV1,8351068242,,100,MONTHLY,AA111AA,15000,,\r\n"
+                + "MASTER,MVC1,12345678,,,,,,,\r\n"
+                + "VEHICLE,SV2,12345678,8351068242,200,QUARTERLY,BANAN22,22000,MVC1,\r\n"
+                + "\r\n"
+                + "TRAVEL,TC1,12345678,,10,ANNUAL,,,,8351068242;0402114911", StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, rejects);
+
+        assertEquals(4, summary.getImportedRows());
+        assertEquals(0, summary.getRejectedRows());
+        assertEquals(3, company.getContracts().size());
+        SingleVehicleContract single = (SingleVehicleContract) company.findContract("SV1");
+        assertEquals(100, single.getContractPaymentData().getOutstandingBalance());
+        assertEquals(PremiumPaymentFrequency.MONTHLY, single.getContractPaymentData().getPremiumPaymentFrequency());
+        MasterVehicleContract master = (MasterVehicleContract) company.findContract("MVC1");
+        assertTrue(master.getChildContracts().contains((SingleVehicleContract) company.findContract("SV2")));
+        TravelContract travel = (TravelContract) company.findContract("TC1");
+        assertTrue(travel.getInsuredPersons().contains(company.findPerson("8351068242")));
+        assertSame(single.getPolicyHolder(), company.findPerson("8351068242"));
+        assertEquals(0, Files.size(rejects));
+    }
+
+    @Test
+    void testRejectedRowsGoToSideFile() throws IOException {
+        Files.writeString(file, "VEHICLE,SV1,8351068242,,100,MONTHLY,AA111AA,15000,,\n"
+                + "VEHICLE,SV2,1234,,100,MONTHLY,AB111AA,15000,,\n"
+                + "VEHICLE,SV3,12345678,,100,WEEKLY,AC111AA,15000,,\n"
+                + "VEHICLE,SV4,12345678,,100,MONTHLY,AA111AA,15000,,\n"
+                + "VEHICLE,SV1,12345678,,100,MONTHLY,AD111AA,15000,,\n"
+                + "VEHICLE,SV5,12345678,,100,MONTHLY,AE111AA,15000,MVC9,\n"
+                + "TRAVEL,TC1,12345678\n"
+                + "VEHICLE,SV6,12345678,,100,MONTHLY,AF111AA,15000,,\n", StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, rejects);
+
+        assertEquals(2, summary.getImportedRows());
+        assertEquals(6, summary.getRejectedRows());
+        assertNotNull(company.findContract("SV6"));
+        assertNull(company.findContract("SV5")); //master zmluva neexistuje - zmluva sa ani nevytvori
+        List<String> rejected = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+        assertEquals(6, rejected.size());
+        List<String> lineNumbers = new ArrayList<>();
+        for (String line : rejected) {
+            lineNumbers.add(line.substring(0, line.indexOf(',')));
+        }
+        assertEquals(List.of("2", "3", "4", "5", "6", "7"), lineNumbers);
+        assertTrue(rejected.get(1).contains("WEEKLY"));
+        assertTrue(rejected.get(5).endsWith(",\"TRAVEL,TC1,12345678\""));
+    }
+
+    @Test
+    void testRejectedRecordWithQuotedNewlineStaysOneRecord() throws IOException {
+        Files.writeString(file, "MASTER,\"M\n1\",1234,,,,,,,\n"
+                + "MASTER,M2,12345678,,,,,,,\n", StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, rejects);
+
+        assertEquals(1, summary.getImportedRows());
+        assertEquals(1, summary.getRejectedRows());
+        String rejected = Files.readString(rejects, StandardCharsets.UTF_8).strip();
+        assertTrue(rejected.startsWith("1,\""));
+        assertTrue(rejected.endsWith("\",\"MASTER,\"\"M\n1\"\",1234,,,,,,,\""));
+    }
+
+    @Test
+    void testLargeFileInSeveralBatches() throws IOException {
+        StringBuilder rows = new StringBuilder(ContractImporter.CSV_HEADER).append('\n');
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            rows.append("VEHICLE,SV").append(i).append(",12345678,,100,MONTHLY,")
+                    .append(String.format("AA%05d", i)).append(",15000,,\n");
+        }
+        Files.writeString(file, rows, StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, null);
+
+        assertEquals(count, summary.getImportedRows());
+        assertEquals(count, company.getContracts().size());
+        assertNotNull(company.findContractByLicensePlate("AA09999"));
+    }
+
+    @Test
+    void testQuotedFieldsAndBrokenQuotes() throws IOException {
+        Files.writeString(file, "MASTER,\"M,1\",12345678,,,,,,,\n"
+                + "VEHICLE,\"S\"\"1\",12345678,,100,MONTHLY,AA111AA,15000,\"M,1\",\n"
+                + "MASTER,\"M2\"x,12345678,,,,,,,\n"
+                + "MASTER,\"M3,12345678,,,,,,,\n", StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, rejects);
+
+        assertEquals(2, summary.getImportedRows());
+        assertEquals(2, summary.getRejectedRows());
+        MasterVehicleContract master = (MasterVehicleContract) company.findContract("M,1");
+        assertTrue(master.getChildContracts().contains((SingleVehicleContract) company.findContract("S\"1")));
+        List<String> rejected = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+        assertTrue(rejected.get(0).startsWith("3,\"Za úvodzovkami musí nasledovať čiarka.\","));
+        assertTrue(rejected.get(1).startsWith("4,\"Neukončené úvodzovky.\","));
+    }
+
+    @Test
+    void testStrayQuoteInsideFieldDoesNotSwallowLaterRows() throws IOException {
+        Files.writeString(file, "VEHICLE,SV\"1,12345678,,100,MONTHLY,AA111AA,15000,,\n"
+                + "VEHICLE,SV2,12345678,,100,MONTHLY,AB111AA,15000,,x\"\n"
+                + "VEHICLE,SV3,12345678,,100,MONTHLY,AC111AA,15000,,\n"
+                + "MASTER,\"M\"\"1\",12345678,,,,,,,\n"
+                + "VEHICLE,SV4,12345678,,100,MONTHLY,AD111AA,15000,,\n", StandardCharsets.UTF_8);
+
+        ImportSummary summary = new ContractImporter(company).importFile(file, rejects);
+
+        // A quote inside a field is an ordinary character, so every line is its own record
+        assertEquals(5, summary.getImportedRows());
+        assertEquals(0, summary.getRejectedRows());
+        assertNotNull(company.findContract("SV\"1"));
+        assertNotNull(company.findContract("SV2"));
+        assertNotNull(company.findContract("SV3"));
+        assertNotNull(company.findContract("M\"1"));
+        assertNotNull(company.findContract("SV4"));
+    }
+}
@@ -0,0 +1,52 @@
+package objects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(5, "a"));
+        assertEquals("a", map.put(5, "b"));
+        assertEquals("b", map.putIfAbsent(5, "c"));
+        assertNull(map.putIfAbsent(-1, "d"));
+        assertEquals(2, map.size());
+        assertEquals("b", map.get(5));
+        assertEquals("d", map.get(-1));
+        assertTrue(map.containsKey(-1));
+        assertEquals("b", map.remove(5));
+        assertNull(map.remove(5));
+        assertNull(map.get(5));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    void testMatchesHashMapAcrossResizesAndRemovals() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(15);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+    }
+}
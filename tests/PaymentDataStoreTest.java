@@ -0,0 +1,275 @@
+package payment;
+
+import company.BillingSummary;
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentDataStoreTest {
+
+    @Test
+    void testRowsAreViewsOverTheStore() {
+        PaymentDataStore store = new PaymentDataStore();
+        LocalDateTime time = LocalDateTime.of(2025, 1, 31, 10, 30, 15, 500);
+        ContractPaymentData data = store.add(100, PremiumPaymentFrequency.MONTHLY, time, 20);
+
+        assertEquals(0, data.getHandle());
+        assertEquals(1, store.size());
+        assertEquals(time, data.getNextPaymentTime());
+        assertEquals(PremiumPaymentFrequency.MONTHLY, data.getPremiumPaymentFrequency());
+
+        ContractPaymentData view = store.get(0);
+        view.setPremium(150);
+        view.setOutstandingBalance(-40);
+        assertEquals(150, data.getPremium());
+        assertEquals(-40, data.getOutstandingBalance());
+
+        data.updateNextPaymentTime();
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 30, 15, 500), view.getNextPaymentTime());
+        assertThrows(IllegalArgumentException.class, () -> store.get(1));
+        assertThrows(IllegalArgumentException.class, () -> store.add(0, PremiumPaymentFrequency.MONTHLY, time, 0));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testReportsOverManyRows() {
+        PaymentDataStore store = new PaymentDataStore();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        long expectedBalance = 0;
+        for (int i = 0; i < 10_000; i++) {
+            store.add(1 + i % 7, PremiumPaymentFrequency.QUARTERLY, start.plusDays(i % 100), i % 13 - 6);
+            expectedBalance += i % 13 - 6;
+        }
+        ContractPaymentData first = store.get(0);
+        ContractPaymentData last = store.get(9_999);
+
+        assertEquals(expectedBalance, store.getTotalOutstandingBalance());
+        assertEquals(5_000, store.countDue(start.plusDays(49)));
+        assertEquals(1, first.chargeDuePremiums(start));
+        assertEquals(expectedBalance + 1, store.getTotalOutstandingBalance());
+        assertEquals(start.plusDays(99), last.getNextPaymentTime());
+    }
+
+    @Test
+    void testCompanyKeepsPaymentDataInItsStore() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 0, 0));
+        Person policyHolder = new Person("12345678");
+        SingleVehicleContract contract = insuranceCompany.insureVehicle("C1", null, policyHolder, 1000,
+                PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+
+        PaymentDataStore store = insuranceCompany.getPaymentDataStore();
+        assertEquals(1, store.size());
+        assertEquals(1000, store.getTotalOutstandingBalance());
+        contract.pay(400);
+        assertEquals(600, store.get(contract.getContractPaymentData().getHandle()).getOutstandingBalance());
+    }
+
+    @Test
+    void testRejectedContractLeavesNoRow() {
+        LocalDateTime now = LocalDateTime.of(2025, 4, 15, 0, 0);
+        InsuranceCompany insuranceCompany = new InsuranceCompany(now);
+        Person policyHolder = new Person("12345678");
+        Person driver = new Person("8351068242");
+        insuranceCompany.insureVehicle("C1", null, policyHolder, 1000, PremiumPaymentFrequency.ANNUAL,
+                new Vehicle("AA111AA", 15_000));
+        PaymentDataStore store = insuranceCompany.getPaymentDataStore();
+        int due = store.countDue(now);
+
+        //vozidlo uz poistil iny poistnik
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle("C2", null, driver, 1000,
+                PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000)));
+        //beneficient je poistnik - odmietne az konstruktor zmluvy
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insureVehicle("C3", policyHolder,
+                policyHolder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 15_000)));
+        //poistena osoba nie je fyzicka osoba
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.insurePersons("T1", policyHolder, 100,
+                PremiumPaymentFrequency.ANNUAL, Set.of(new Person("87654321"))));
+
+        assertEquals(1, store.size());
+        assertEquals(due, store.countDue(now));
+        SingleVehicleContract next = insuranceCompany.insureVehicle("C4", null, driver, 1000,
+                PremiumPaymentFrequency.ANNUAL, new Vehicle("AC111AA", 15_000));
+        assertEquals(1, next.getContractPaymentData().getHandle());
+    }
+
+    @Test
+    void testStandalonePaymentDataNeedsNoStore() {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 31, 10, 0);
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, time, 0);
+        assertTrue(data.isContractActive());
+        assertEquals(2, data.chargeDuePremiums(time.plusMonths(1)));
+        assertEquals(200, data.getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 3, 28, 10, 0), data.getNextPaymentTime());
+        assertThrows(IllegalArgumentException.class, () -> new PaymentDataStore().removeLast(data));
+    }
+
+    @Test
+    void testOffHeapStoreMatchesHeapStore() {
+        PaymentDataStore heap = new PaymentDataStore();
+        PaymentDataStore offHeap = new PaymentDataStore(true);
+        assertTrue(offHeap.isOffHeap());
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_999);
+        for (int i = 0; i < 1_000; i++) {
+            PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[i % 4];
+            heap.add(10 + i, frequency, start.minusDays(i), -i);
+            offHeap.add(10 + i, frequency, start.minusDays(i), -i);
+        }
+
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 0, 0);
+        for (int i = 0; i < 1_000; i++) {
+            ContractPaymentData a = heap.get(i);
+            ContractPaymentData b = offHeap.get(i);
+            assertEquals(a.chargeDuePremiums(now), b.chargeDuePremiums(now));
+            assertEquals(a.getOutstandingBalance(), b.getOutstandingBalance());
+            assertEquals(a.getNextPaymentTime(), b.getNextPaymentTime());
+            assertEquals(a.getPremiumPaymentFrequency(), b.getPremiumPaymentFrequency());
+        }
+        assertEquals(heap.getTotalOutstandingBalance(), offHeap.getTotalOutstandingBalance());
+    }
+
+    @Test
+    void testStoreMatchesPlusMonthsOnRandomSchedules() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            Random random = new Random(55L);
+            PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+            PaymentDataStore store = new PaymentDataStore(offHeap);
+            int rows = 10_000; //na halde su to tri stranky
+            LocalDateTime[] next = new LocalDateTime[rows];
+            PremiumPaymentFrequency[] frequency = new PremiumPaymentFrequency[rows];
+            int[] premium = new int[rows];
+            long[] balance = new long[rows];
+            boolean[] active = new boolean[rows];
+
+            LocalDateTime now = LocalDateTime.of(2020, 1, 1, 0, 0);
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime start = now.plusMonths(random.nextInt(24)).plusMinutes(random.nextInt(24 * 60));
+                int length = start.toLocalDate().lengthOfMonth();
+                next[i] = start.withDayOfMonth(random.nextBoolean() ? length - random.nextInt(4) : 1 + random.nextInt(length));
+                if (random.nextInt(10) == 0) {
+                    next[i] = next[i].withNano(random.nextInt(1_000_000_000));
+                }
+                frequency[i] = frequencies[random.nextInt(frequencies.length)];
+                premium[i] = 1 + random.nextInt(1_000);
+                balance[i] = random.nextInt(2_001) - 1_000;
+                active[i] = true;
+                store.add(premium[i], frequency[i], next[i], (int) balance[i]);
+            }
+
+            for (int round = 0; round < 30; round++) {
+                //obcas presne na splatnost niektoreho riadku, inak skok o hodiny az roky
+                now = random.nextInt(4) == 0 ? max(now, next[random.nextInt(rows)])
+                        : now.plusHours(random.nextInt(random.nextBoolean() ? 24 * 40 : 24 * 365 * 5));
+                for (int change = 0; change < 200; change++) {
+                    int i = random.nextInt(rows);
+                    ContractPaymentData data = store.get(i);
+                    switch (random.nextInt(3)) {
+                        case 0 -> {
+                            frequency[i] = frequencies[random.nextInt(frequencies.length)];
+                            data.setPremiumPaymentFrequency(frequency[i]);
+                        }
+                        case 1 -> {
+                            premium[i] = 1 + random.nextInt(1_000);
+                            data.setPremium(premium[i]);
+                        }
+                        default -> {
+                            active[i] = false;
+                            data.markContractInactive();
+                        }
+                    }
+                }
+
+                int due = 0;
+                long total = 0;
+                for (int i = 0; i < rows; i++) {
+                    if (active[i] && !next[i].isAfter(now)) {
+                        due++;
+                    }
+                }
+                assertEquals(due, store.countDue(now));
+                //kazde druhe kolo uctuje cely sklad naraz, inak riadok po riadku
+                boolean wholeStore = round % 2 == 1;
+                long accrued = 0;
+                for (int i = 0; i < rows; i++) {
+                    ContractPaymentData data = store.get(i);
+                    if (active[i]) {
+                        int periods = 0;
+                        while (!next[i].isAfter(now)) {
+                            balance[i] += premium[i];
+                            next[i] = next[i].plusMonths(frequency[i].getValueInMonths());
+                            periods++;
+                        }
+                        accrued += (long) periods * premium[i];
+                        if (!wholeStore) {
+                            assertEquals(periods, data.chargeDuePremiums(now));
+                        }
+                    }
+                }
+                if (wholeStore) {
+                    BillingSummary summary = store.chargeDue(now);
+                    assertEquals(due, summary.getChargedContracts());
+                    assertEquals(accrued, summary.getTotalAccrued());
+                }
+                for (int i = 0; i < rows; i++) {
+                    ContractPaymentData data = store.get(i);
+                    assertEquals(balance[i], data.getOutstandingBalance());
+                    assertEquals(next[i], data.getNextPaymentTime());
+                    total += balance[i];
+                }
+                assertEquals(total, store.getTotalOutstandingBalance());
+                assertEquals(0, store.countDue(now));
+            }
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    @Test
+    void testCompanyWithOffHeapStore() {
+        InsuranceCompany insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 0, 0),
+                new PaymentDataStore(true));
+        Person policyHolder = new Person("12345678");
+        SingleVehicleContract contract = insuranceCompany.insureVehicle("C1", null, policyHolder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract ended = insuranceCompany.insureVehicle("C2", null, policyHolder, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        ended.setInactive();
+        assertFalse(ended.getContractPaymentData().isContractActive());
+
+        insuranceCompany.advanceTime(LocalDateTime.of(2025, 6, 15, 0, 0));
+        assertEquals(300, contract.getContractPaymentData().getOutstandingBalance());
+        assertEquals(400, insuranceCompany.getPaymentDataStore().getTotalOutstandingBalance());
+        assertEquals(1, insuranceCompany.getPaymentDataStore().countDue(LocalDateTime.of(2025, 7, 15, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new InsuranceCompany(LocalDateTime.now(), null));
+    }
+
+    @Test
+    void testPrimitiveDueDateKeepsDateOrder() {
+        LocalDateTime[] times = {
+                LocalDateTime.of(-1, 12, 31, 0, 0),
+                LocalDateTime.of(0, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 29, 8, 0),
+                LocalDateTime.of(2024, 3, 1, 0, 0),
+                LocalDateTime.of(2024, 3, 31, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0)
+        };
+        for (int i = 1; i < times.length; i++) {
+            assertTrue(ContractPaymentData.packDate(times[i - 1]) < ContractPaymentData.packDate(times[i]));
+        }
+
+        ContractPaymentData data = new ContractPaymentData(10, PremiumPaymentFrequency.MONTHLY, times[2], 0);
+        assertEquals(ContractPaymentData.packDate(times[2]), data.getNextPaymentDate());
+        assertEquals(8L * 3600 * 1_000_000_000, data.getNextPaymentNanoOfDay());
+        data.updateNextPaymentTime();
+        assertEquals(LocalDateTime.of(2024, 3, 29, 8, 0), data.getNextPaymentTime());
+    }
+}
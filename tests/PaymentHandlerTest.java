@@ -0,0 +1,135 @@
+package payment;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentHandlerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+    //rovnaka poistovna pre porovnanie hromadnej platby s postupnymi platbami
+    private static InsuranceCompany company() {
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person holder = new Person("12345678");
+        company.insureVehicle("SV1", null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract first = company.insureVehicle("SV2", null, holder, 200,
+                PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+        SingleVehicleContract second = company.insureVehicle("SV3", null, holder, 150,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AC111AA", 12_000));
+        MasterVehicleContract master = company.createMasterVehicleContract("MVC1", null, holder);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, first);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, second);
+        return company;
+    }
+
+    private static List<PaymentOrder> orders(InsuranceCompany company) {
+        List<PaymentOrder> orders = new ArrayList<>();
+        orders.add(new PaymentOrder(company.findContract("SV1"), 30));
+        orders.add(new PaymentOrder(company.findContract("MVC1"), 500));
+        orders.add(new PaymentOrder(company.findContract("SV1"), 0));
+        orders.add(new PaymentOrder(null, 10));
+        orders.add(new PaymentOrder(company.findContract("SV1"), 45));
+        orders.add(new PaymentOrder(company.findContract("MVC1"), 120));
+        orders.add(null);
+        return orders;
+    }
+
+    @Test
+    void testPayAllMatchesSequentialPayments() {
+        InsuranceCompany batch = company();
+        List<PaymentStatus> results = batch.getHandler().payAll(orders(batch));
+
+        InsuranceCompany sequential = company();
+        for (PaymentOrder order : orders(sequential)) {
+            if (order == null || order.getContract() == null || order.getAmount() <= 0) {
+                continue;
+            }
+            if (order.getContract() instanceof MasterVehicleContract master) {
+                sequential.getHandler().pay(master, order.getAmount());
+            } else {
+                sequential.getHandler().pay(order.getContract(), order.getAmount());
+            }
+        }
+
+        assertEquals(List.of(PaymentStatus.PAID, PaymentStatus.PAID, PaymentStatus.INVALID_PAYMENT,
+                PaymentStatus.INVALID_PAYMENT, PaymentStatus.PAID, PaymentStatus.PAID,
+                PaymentStatus.INVALID_PAYMENT), results);
+        for (String number : List.of("SV1", "SV2", "SV3")) {
+            assertEquals(sequential.findContract(number).getContractPaymentData().getOutstandingBalance(),
+                    batch.findContract(number).getContractPaymentData().getOutstandingBalance(), number);
+        }
+        PaymentLedger ledger = batch.getHandler().getPaymentLedger();
+        AbstractContract single = batch.findContract("SV1");
+        assertEquals(2, ledger.getPaymentCount(single));
+        assertEquals(75, ledger.getTotalPaid(single, START, START.plusDays(1)));
+        assertEquals(2, ledger.getPaymentCount(batch.findContract("MVC1")));
+        assertEquals(sequential.getHandler().getPaymentLedger().getTotalPaid(START, START.plusDays(1)),
+                ledger.getTotalPaid(START, START.plusDays(1)));
+    }
+
+    @Test
+    void testMasterAndItsChildKeepInputOrder() {
+        InsuranceCompany batch = company();
+        SingleVehicleContract child = (SingleVehicleContract) batch.findContract("SV2");
+        MasterVehicleContract master = (MasterVehicleContract) batch.findContract("MVC1");
+        //po zoskupeni by dcerska zmluva dostala 130 pred platbou master zmluvy a ta by sa rozdelila inak
+        List<PaymentStatus> results = batch.getHandler().payAll(List.of(new PaymentOrder(child, 100),
+                new PaymentOrder(master, 150), new PaymentOrder(child, 30)));
+
+        InsuranceCompany sequential = company();
+        SingleVehicleContract sequentialChild = (SingleVehicleContract) sequential.findContract("SV2");
+        MasterVehicleContract sequentialMaster = (MasterVehicleContract) sequential.findContract("MVC1");
+        sequentialChild.pay(100);
+        sequentialMaster.pay(150);
+        sequentialChild.pay(30);
+
+        assertEquals(List.of(PaymentStatus.PAID, PaymentStatus.PAID, PaymentStatus.PAID), results);
+        assertEquals(-30, child.getContractPaymentData().getOutstandingBalance());
+        for (String number : List.of("SV2", "SV3")) {
+            assertEquals(sequential.findContract(number).getContractPaymentData().getOutstandingBalance(),
+                    batch.findContract(number).getContractPaymentData().getOutstandingBalance(), number);
+        }
+        PaymentLedger ledger = batch.getHandler().getPaymentLedger();
+        PaymentLedger sequentialLedger = sequential.getHandler().getPaymentLedger();
+        assertEquals(sequentialLedger.getTotalPaid(sequentialMaster, START, START.plusDays(1)),
+                ledger.getTotalPaid(master, START, START.plusDays(1)));
+        assertEquals(2, ledger.getPaymentCount(child));
+    }
+
+    @Test
+    void testInvalidContractRejectsOnlyItsItems() {
+        InsuranceCompany company = company();
+        InsuranceCompany other = company();
+        SingleVehicleContract wrecked = (SingleVehicleContract) company.findContract("SV1");
+        company.processClaim(wrecked, 14_000); //skoda nad 70 % hodnoty - zmluva skonci
+        MasterVehicleContract empty = company.createMasterVehicleContract("MVC2", null, new Person("87654321"));
+        SingleVehicleContract child = (SingleVehicleContract) company.findContract("SV2");
+        int balance = child.getContractPaymentData().getOutstandingBalance();
+
+        List<PaymentStatus> results = company.getHandler().payAll(List.of(
+                new PaymentOrder(wrecked, 10),
+                new PaymentOrder(other.findContract("SV1"), 10),
+                new PaymentOrder(empty, 10),
+                new PaymentOrder(child, 25),
+                new PaymentOrder(wrecked, 20)));
+
+        assertEquals(List.of(PaymentStatus.INVALID_CONTRACT, PaymentStatus.INVALID_CONTRACT,
+                PaymentStatus.INVALID_CONTRACT, PaymentStatus.PAID, PaymentStatus.INVALID_CONTRACT), results);
+        assertEquals(balance - 25, child.getContractPaymentData().getOutstandingBalance());
+        assertEquals(0, company.getHandler().getPaymentLedger().getPaymentCount(wrecked));
+        assertTrue(company.getHandler().payAll(List.of()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> company.getHandler().payAll(null));
+    }
+}
@@ -0,0 +1,247 @@
+package payment;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentLedgerTest {
+
+    private LocalDateTime day;
+    private InsuranceCompany insuranceCompany;
+    private SingleVehicleContract contract1;
+    private SingleVehicleContract contract2;
+    private PaymentLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        day = LocalDateTime.of(2025, 4, 15, 0, 0);
+        insuranceCompany = new InsuranceCompany(day);
+        Person policyHolder = new Person("12345678");
+        contract1 = insuranceCompany.insureVehicle("C1", null, policyHolder, 1000, PremiumPaymentFrequency.ANNUAL,
+                new Vehicle("AA111AA", 15_000));
+        contract2 = insuranceCompany.insureVehicle("C2", null, policyHolder, 1000, PremiumPaymentFrequency.ANNUAL,
+                new Vehicle("BANAN22", 22_000));
+        ledger = insuranceCompany.getHandler().getPaymentLedger();
+    }
+
+    private void payAt(SingleVehicleContract contract, LocalDateTime time, int amount) {
+        insuranceCompany.setCurrentTime(time);
+        contract.pay(amount);
+    }
+
+    @Test
+    void testPaymentsOfContractInPeriod() {
+        payAt(contract1, day.plusHours(8), 10);
+        payAt(contract1, day.plusDays(1), 20);           // exactly at the end of the first day
+        payAt(contract1, day.plusDays(1).plusHours(3), 30);
+        payAt(contract2, day.plusHours(9), 40);
+
+        List<PaymentInstance> firstDay = ledger.getPayments(contract1, day, day.plusDays(1));
+        assertEquals(1, firstDay.size());
+        assertEquals(10, firstDay.get(0).getPaymentAmount());
+        assertEquals(day.plusHours(8), firstDay.get(0).getPaymentTime());
+
+        assertEquals(50, ledger.getTotalPaid(contract1, day.plusDays(1), day.plusDays(2)));
+        assertEquals(60, ledger.getTotalPaid(contract1, day, day.plusMonths(1)));
+        assertEquals(0, ledger.getTotalPaid(contract1, day.minusDays(1), day));
+        assertTrue(ledger.getPayments(contract2, day.plusDays(1), day.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    void testPaymentsOfWholeCompanyInPeriod() {
+        payAt(contract2, day.plusDays(2).plusHours(1), 1);
+        payAt(contract1, day.plusHours(8), 10);
+        payAt(contract2, day.plusHours(9), 40);
+        payAt(contract1, day.plusDays(1).plusHours(3), 30);
+
+        List<AbstractContract> contracts = new ArrayList<>();
+        List<Integer> amounts = new ArrayList<>();
+        ledger.forEachPayment(day, day.plusDays(2), (contract, time, amount) -> {
+            contracts.add(contract);
+            amounts.add(amount);
+        });
+
+        assertEquals(List.of(contract1, contract2, contract1), contracts);
+        assertEquals(List.of(10, 40, 30), amounts);
+        assertEquals(81, ledger.getTotalPaid(day, day.plusMonths(1)));
+        assertEquals(50, ledger.getTotalPaid(day, day.plusDays(1)));
+    }
+
+    @Test
+    void testCursorPagesThroughPayments() {
+        LocalDateTime noon = day.plusHours(12);
+        for (int i = 0; i < 10_000; i++) {
+            ledger.record(i % 2 == 0 ? contract1 : contract2, noon, 1); //viac stranok s rovnakym casom
+        }
+        ledger.record(contract1, day.plusHours(1), 5);
+        ledger.record(contract2, day.plusDays(1), 7);
+        ledger.record(contract2, day.plusDays(3), 9); //mimo obdobia
+
+        PaymentCursor cursor = ledger.cursor(day, day.plusDays(2));
+        int count = 0;
+        long total = 0;
+        LocalDateTime previous = LocalDateTime.MIN;
+        while (cursor.next()) {
+            assertFalse(cursor.getTime().isBefore(previous));
+            previous = cursor.getTime();
+            if (count == 5_000) {
+                ledger.record(contract1, noon, 100); //zaradi sa za platby s rovnakym casom, kurzor ju este uvidi
+                ledger.record(contract1, day, 1_000); //kurzor uz tento cas presiel
+            }
+            count++;
+            total += cursor.getAmount();
+        }
+        assertEquals(10_003, count);
+        assertEquals(5 + 10_000 + 100 + 7, total);
+    }
+
+    @Test
+    void testBackdatedPaymentKeepsCompanyIndexConsistent() {
+        ledger.record(contract1, day.plusDays(1).plusHours(1), 10);
+        ledger.record(contract2, day.plusDays(1).plusHours(2), 20);
+        ledger.record(contract1, day.plusDays(2), 30);
+        ledger.record(contract1, day.plusHours(5), 40);  //zaradi sa pred predosle platby zmluvy, ich riadky ostanu
+        ledger.record(contract1, day.plusDays(1), 50);
+
+        List<Integer> amounts = new ArrayList<>();
+        List<LocalDateTime> times = new ArrayList<>();
+        ledger.forEachPayment(day, day.plusDays(3), (contract, time, amount) -> {
+            amounts.add(amount);
+            times.add(time);
+        });
+        assertEquals(List.of(40, 50, 10, 20, 30), amounts);
+        assertEquals(List.of(day.plusHours(5), day.plusDays(1), day.plusDays(1).plusHours(1),
+                day.plusDays(1).plusHours(2), day.plusDays(2)), times);
+        assertEquals(130, ledger.getTotalPaid(contract1, day, day.plusDays(3)));
+        assertEquals(80, ledger.getTotalPaid(day.plusDays(1), day.plusDays(2)));
+
+        PaymentCursor cursor = ledger.cursor(day, day.plusDays(3));
+        List<Integer> paged = new ArrayList<>();
+        while (cursor.next()) {
+            paged.add(cursor.getAmount());
+        }
+        assertEquals(amounts, paged);
+    }
+
+    private List<AbstractContract> travelContracts(int count) {
+        Person person = new Person("8351068242");
+        List<AbstractContract> contracts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            contracts.add(insuranceCompany.insurePersons("T" + i, person, 10, PremiumPaymentFrequency.ANNUAL,
+                    Set.of(person)));
+        }
+        return contracts;
+    }
+
+    @Test
+    void testCursorPagesThroughEqualTimesOfManyContracts() {
+        List<AbstractContract> contracts = travelContracts(64); //zmluvy v roznych pruhoch indexu
+        LocalDateTime noon = day.plusHours(12);
+        for (int i = 0; i < 10_000; i++) {
+            ledger.record(contracts.get(i % contracts.size()), noon, 1);
+        }
+
+        PaymentCursor cursor = ledger.cursor(day, day.plusDays(1));
+        Map<AbstractContract, Integer> paid = new HashMap<>();
+        int count = 0;
+        while (cursor.next()) {
+            if (count == 5_000) {
+                for (AbstractContract contract : contracts) {
+                    ledger.record(contract, noon, 100);
+                }
+            }
+            paid.merge(cursor.getContract(), cursor.getAmount(), Integer::sum);
+            count++;
+        }
+        assertEquals(10_000 + contracts.size(), count);
+        for (int i = 0; i < contracts.size(); i++) {
+            assertEquals((i < 10_000 % 64 ? 157 : 156) + 100, paid.get(contracts.get(i)));
+        }
+    }
+
+    @Test
+    void testConcurrentWritersKeepTimeOrder() throws InterruptedException {
+        List<AbstractContract> contracts = travelContracts(32);
+        int threads = 8;
+        int perThread = 5_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    //kazda zmluva ma jedneho zapisovatela, cas ide obcas dozadu
+                    AbstractContract contract = contracts.get(first + threads * (i % (contracts.size() / threads)));
+                    ledger.record(contract, day.plusSeconds(i % 7 == 0 ? perThread - i : i), 1);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        List<LocalDateTime> times = new ArrayList<>();
+        ledger.forEachPayment(day, day.plusDays(1), (contract, time, amount) -> times.add(time));
+        assertEquals(threads * perThread, times.size());
+        for (int i = 1; i < times.size(); i++) {
+            assertFalse(times.get(i).isBefore(times.get(i - 1)));
+        }
+        PaymentCursor cursor = ledger.cursor(day, day.plusDays(1));
+        List<LocalDateTime> paged = new ArrayList<>();
+        while (cursor.next()) {
+            paged.add(cursor.getTime());
+        }
+        assertEquals(times, paged);
+        assertEquals(threads * perThread, ledger.getTotalPaid(day, day.plusDays(1)));
+        for (AbstractContract contract : contracts) {
+            List<PaymentInstance> payments = ledger.getPayments(contract, day, day.plusDays(1));
+            assertEquals(perThread / (contracts.size() / threads), payments.size());
+            for (int i = 1; i < payments.size(); i++) {
+                assertFalse(payments.get(i).getPaymentTime().isBefore(payments.get(i - 1).getPaymentTime()));
+            }
+        }
+    }
+
+    @Test
+    void testHistoryKeepsEqualPaymentsAsSeparateElements() {
+        payAt(contract1, day.plusHours(8), 10);
+        payAt(contract1, day.plusHours(8), 10); //rovnaky cas aj suma - stale dve platby
+        payAt(contract1, day.plusHours(9), 20);
+
+        Set<PaymentInstance> history = ledger.asHistory().get(contract1);
+        assertEquals(3, history.size());
+        assertEquals(3, new HashSet<>(history).size());
+        for (PaymentInstance payment : history) {
+            assertTrue(history.contains(payment)); //ta ista platba z noveho prechodu
+        }
+        assertEquals(new HashSet<>(history), history);
+        assertFalse(history.contains(new PaymentInstance(day.plusHours(8), 10))); //platba mimo historie
+
+        List<PaymentInstance> listed = ledger.getPayments(contract1, day, day.plusDays(1));
+        assertNotEquals(listed.get(0), listed.get(1));
+        assertTrue(history.containsAll(listed));
+        assertEquals(listed.get(2).hashCode(), history.stream().skip(2).findFirst().orElseThrow().hashCode());
+    }
+
+    @Test
+    void testInvalidPeriod() {
+        assertThrows(IllegalArgumentException.class, () -> ledger.getPayments(null, day, day.plusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getPayments(contract1, null, day));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getTotalPaid(day.plusDays(1), day));
+        assertThrows(IllegalArgumentException.class, () -> ledger.forEachPayment(day, day.plusDays(1), null));
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import payment.ContractPaymentData;
 import payment.PremiumPaymentFrequency;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -191,4 +192,95 @@ class PersonTest {
         // Test throwing exception with null
         assertThrows(IllegalArgumentException.class, () -> policyHolder.addContract(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDetermineLegalForm() {
+        assertEquals(LegalForm.NATURAL, Person.determineLegalForm("8351068242")); // 10-digit birth number
+        assertEquals(LegalForm.NATURAL, Person.determineLegalForm("485417647"));  // 9-digit birth number
+        assertEquals(LegalForm.LEGAL, Person.determineLegalForm("12345678"));     // 8-digit registration number
+        assertEquals(LegalForm.LEGAL, Person.determineLegalForm("123456"));       // 6-digit registration number
+
+        assertNull(Person.determineLegalForm(null));
+        assertNull(Person.determineLegalForm("8351068243"));  // wrong checksum
+        assertNull(Person.determineLegalForm("0402303000"));  // 30th of February, checksum is valid
+        assertNull(Person.determineLegalForm("1234567"));     // 7 digits
+        assertNull(Person.determineLegalForm("12A456"));      // not a digit
+    }
+
+    @Test
+    void testLeapDayInBirthNumber() {
+        assertTrue(Person.isValidBirthNumber("040229000"));   // 29.2.1904, leap year
+        assertFalse(Person.isValidBirthNumber("000229000"));  // 29.2.1900 is not a leap year
+        assertFalse(Person.isValidBirthNumber("030229000"));  // 29.2.1903
+    }
+
+    @Test
+    void testBatchValidationOfIds() {
+        String[] ids = {"8004172022", "12345678", "8004172023", "87654321", "", "0402303000"};
+        StringBuilder all = new StringBuilder();
+        int[] offsets = new int[ids.length + 1];
+        for (int i = 0; i < ids.length; i++) {
+            all.append(ids[i]);
+            offsets[i + 1] = all.length();
+        }
+
+        IdValidationResult bytes = IdBatchValidator.validate(all.toString().getBytes(StandardCharsets.US_ASCII), offsets);
+        IdValidationResult chars = IdBatchValidator.validate(all.toString().toCharArray(), offsets);
+        for (IdValidationResult result : new IdValidationResult[]{bytes, chars}) {
+            assertEquals(ids.length, result.size());
+            for (int i = 0; i < ids.length; i++) {
+                boolean valid = Person.isValidBirthNumber(ids[i]) || Person.isValidRegistrationNumber(ids[i]);
+                assertEquals(valid, result.isValid(i));
+                if (valid) {
+                    assertEquals(Person.determineLegalForm(ids[i]), result.getLegalForm(i));
+                } else {
+                    assertNull(result.getLegalForm(i));
+                }
+            }
+            assertEquals(3, result.getValidCount());
+        }
+    }
+
+    @Test
+    void testBatchValidationOfLines() {
+        byte[] data = "8004172022\r\n12345678\n\nabc\n87654321".getBytes(StandardCharsets.US_ASCII);
+        IdValidationResult result = IdBatchValidator.validateLines(data);
+
+        assertEquals(5, result.size());
+        assertEquals(LegalForm.NATURAL, result.getLegalForm(0));
+        assertEquals(LegalForm.LEGAL, result.getLegalForm(1));
+        assertFalse(result.isValid(2));
+        assertFalse(result.isValid(3));
+        assertEquals(LegalForm.LEGAL, result.getLegalForm(4));
+        assertEquals(0b10011L, result.getValidBitmap()[0]);
+        assertEquals(0b00001L, result.getNaturalBitmap()[0]);
+
+        assertEquals(2, IdBatchValidator.validateLines("8004172022\n12345678\n".getBytes(StandardCharsets.US_ASCII)).size());
+        assertEquals(0, IdBatchValidator.validateLines(new byte[0]).size());
+    }
+
+    @Test
+    void testBatchValidationRejectsBadOffsets() {
+        byte[] data = "12345678".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class, () -> IdBatchValidator.validate(data, new int[]{0, 9}));
+        assertThrows(IllegalArgumentException.class, () -> IdBatchValidator.validate(data, new int[]{4, 2}));
+        assertThrows(IllegalArgumentException.class, () -> IdBatchValidator.validate((byte[]) null, new int[]{0}));
+    }
+
+    @Test
+    void testPackedKeys() {
+        assertEquals("8004172022", Person.unpackId(Person.packId("8004172022")));
+        assertEquals("012345", Person.unpackId(Person.packId("012345")));
+        assertNotEquals(Person.packId("0123456"), Person.packId("123456"));
+        assertEquals(Person.NO_PACKED_KEY, Person.packId("12345"));
+        assertEquals(Person.NO_PACKED_KEY, Person.packId("12345678901"));
+        assertEquals(Person.NO_PACKED_KEY, Person.packId("1234567A"));
+        assertThrows(IllegalArgumentException.class, () -> Person.unpackId(-1));
+
+        assertEquals("AA111AA", Vehicle.unpackLicensePlate(Vehicle.packLicensePlate("AA111AA")));
+        assertEquals("0000000", Vehicle.unpackLicensePlate(Vehicle.packLicensePlate("0000000")));
+        assertEquals("ZZZZZZZ", Vehicle.unpackLicensePlate(Vehicle.packLicensePlate("ZZZZZZZ")));
+        assertEquals(Vehicle.NO_PACKED_KEY, Vehicle.packLicensePlate("aa111aa"));
+        assertEquals(Vehicle.NO_PACKED_KEY, Vehicle.packLicensePlate("AA111A"));
+    }
+}
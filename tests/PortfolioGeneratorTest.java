@@ -0,0 +1,133 @@
+package benchmarks;
+
+import company.ContractExporter;
+import company.ContractImporter;
+import company.InsuranceCompany;
+import objects.LegalForm;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioGeneratorTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int SIZE = 40_000; //viac davok generatora (16 384 jednotiek)
+
+    @Test
+    void testWriteIsTheSameInEveryRunAndOnOneThread(@TempDir Path dir) throws IOException {
+        PortfolioGenerator generator = new PortfolioGenerator(7);
+        Path first = dir.resolve("first.csv");
+        Path second = dir.resolve("second.csv");
+        generator.write(first, SIZE);
+        new PortfolioGenerator(7).write(second, SIZE);
+
+        // Reference: every unit generated one after another on this thread
+        StringBuilder expected = new StringBuilder(ContractImporter.CSV_HEADER).append('\n');
+        for (int i = 0; i < SIZE; i++) {
+            expected.append(generator.generate(i).toCsv());
+        }
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        assertEquals(expected.toString(), Files.readString(first, StandardCharsets.UTF_8));
+
+        Path other = dir.resolve("other.csv");
+        new PortfolioGenerator(8).write(other, SIZE);
+        assertFalse(Files.readString(other, StandardCharsets.UTF_8).equals(expected.toString()));
+    }
+
+    @Test
+    void testPopulateIsTheSameInEveryRunAndOnOneThread() throws IOException {
+        InsuranceCompany first = new InsuranceCompany(START);
+        InsuranceCompany second = new InsuranceCompany(START);
+        new PortfolioGenerator(7).populate(first, SIZE);
+        new PortfolioGenerator(7).populate(second, SIZE);
+
+        InsuranceCompany sequential = new InsuranceCompany(START);
+        PortfolioGenerator generator = new PortfolioGenerator(7);
+        for (int i = 0; i < SIZE; i++) {
+            generator.generate(i).insure(sequential);
+        }
+
+        String expected = export(sequential);
+        assertEquals(expected, export(first));
+        assertEquals(expected, export(second));
+    }
+
+    @Test
+    void testBirthNumbersAreValidAndDistinctUpTo60Million() {
+        int limit = 100 * 24 * 28 * 900; //60 480 000
+        for (int i = 0; i < limit; i = i < 200_000 ? i + 1 : i + 7_919) {
+            assertBirthNumber(i);
+        }
+        assertBirthNumber(limit - 1);
+    }
+
+    private static void assertBirthNumber(int i) {
+        String id = PortfolioGenerator.birthNumber(i);
+        assertEquals(10, id.length(), id);
+        long number = Long.parseLong(id);
+        assertEquals(0, number % 11, id);
+
+        // The number decodes back to i, so no two i below the limit share one
+        int year = (int) (number / 100_000_000);
+        int month = (int) (number / 1_000_000 % 100);
+        int day = (int) (number / 10_000 % 100);
+        int serial = (int) (number % 10_000 / 11);
+        if (month > 50) {
+            month -= 38;
+        }
+        assertEquals(i, year + 100 * (month - 1) + 100 * 24 * (day - 1) + 100 * 24 * 28 * serial, id);
+        if (i % 97 == 0) {
+            assertEquals(LegalForm.NATURAL, new Person(id).getLegalForm(), id);
+        }
+    }
+
+    @Test
+    void testRegistrationNumbersAreValidAndDistinct() {
+        assertEquals("00000000", PortfolioGenerator.registrationNumber(0));
+        for (int i = 0; i < 100_000_000; i += 9_973) {
+            String id = PortfolioGenerator.registrationNumber(i);
+            assertEquals(i, Integer.parseInt(id), id);
+            assertEquals(LegalForm.LEGAL, new Person(id).getLegalForm(), id);
+        }
+    }
+
+    @Test
+    void testLicensePlatesAreValidAndDistinct() {
+        long limit = 26L * 26 * 1000 * 26 * 26;
+        for (long i = 0; i < limit; i = i < 200_000 ? i + 1 : i + 104_729) {
+            String plate = PortfolioGenerator.licensePlate(i);
+            long decoded = ((((plate.charAt(0) - 'A') * 26L + plate.charAt(1) - 'A') * 1000
+                    + Integer.parseInt(plate.substring(2, 5))) * 26 + plate.charAt(5) - 'A') * 26 + plate.charAt(6) - 'A';
+            assertEquals(i, decoded, plate);
+            if (i % 101 == 0) {
+                assertEquals(plate, new Vehicle(plate, 1).getLicensePlate());
+            }
+        }
+    }
+
+    // Insured persons of a travel contract are a set without a fixed order (Person has no equals), so they are sorted
+    private static String export(InsuranceCompany company) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ContractExporter(company, ContractExporter.Format.CSV).exportContracts(Channels.newChannel(out));
+        StringBuilder rows = new StringBuilder();
+        for (String row : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            String[] columns = row.split(",", -1);
+            String[] insured = columns[9].split(";");
+            Arrays.sort(insured);
+            columns[9] = String.join(";", insured);
+            rows.append(String.join(",", columns)).append('\n');
+        }
+        return rows.toString();
+    }
+}